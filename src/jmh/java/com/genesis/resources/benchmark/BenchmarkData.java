@@ -0,0 +1,50 @@
+package com.genesis.resources.benchmark;
+
+import com.genesis.resources.model.User;
+import com.genesis.resources.utils.Uuids;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkData
+{
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private BenchmarkData()
+    {
+    }
+
+    static List<String> personIDs(int count, long seed)
+    {
+        Random random = new Random(seed);
+        List<String> ids = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            StringBuilder sb = new StringBuilder(12);
+
+            for (int c = 0; c < 12; c++)
+            {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+
+            ids.add(sb.toString());
+        }
+
+        return ids;
+    }
+
+    static List<User> users(int count)
+    {
+        List<String> personIDs = personIDs(count, 42);
+        List<User> users = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            users.add(new User(i + 1, "Name" + i, "Surname" + i, personIDs.get(i), Uuids.timeOrdered(), 1L));
+        }
+
+        return users;
+    }
+}
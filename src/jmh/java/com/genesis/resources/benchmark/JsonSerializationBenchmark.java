@@ -0,0 +1,48 @@
+package com.genesis.resources.benchmark;
+
+import com.genesis.resources.dto.UserDetailResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark
+{
+    @Param({"100", "10000"})
+    private int size;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private List<UserDetailResponse> users;
+
+    @Setup
+    public void setup()
+    {
+        users = BenchmarkData.users(size).stream()
+                .map(u -> new UserDetailResponse(u.getId(), u.getName(), u.getSurname(), u.getPersonID(), u.getUuid(), u.getVersion()))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeDetailList()
+    {
+        return mapper.writeValueAsBytes(users);
+    }
+}
@@ -0,0 +1,77 @@
+package com.genesis.resources.benchmark;
+
+import com.genesis.resources.utils.PersonIDWhitelist;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonIDProviderBenchmark
+{
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private byte[] file;
+
+    private PersonIDWhitelist whitelist;
+
+    private String[] hits;
+
+    private String[] misses;
+
+    private int next;
+
+    @Setup
+    public void setup()
+    {
+        List<String> ids = BenchmarkData.personIDs(size, 1);
+        file = String.join("\n", ids).getBytes(StandardCharsets.UTF_8);
+        whitelist = PersonIDWhitelist.parse(ByteBuffer.wrap(file));
+        hits = ids.stream().limit(1024).toArray(String[]::new);
+        misses = BenchmarkData.personIDs(1024, 2).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public boolean isValidHit()
+    {
+        next = (next + 1) % hits.length;
+
+        return whitelist.contains(hits[next]);
+    }
+
+    @Benchmark
+    public boolean isValidMiss()
+    {
+        next = (next + 1) % misses.length;
+
+        return whitelist.contains(misses[next]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public PersonIDWhitelist load()
+    {
+        return PersonIDWhitelist.parse(ByteBuffer.wrap(file));
+    }
+}
@@ -0,0 +1,105 @@
+package com.genesis.resources.benchmark;
+
+import com.genesis.resources.model.User;
+import com.genesis.resources.repository.UserCache;
+import com.genesis.resources.repository.UserLoadCoalescer;
+import com.genesis.resources.repository.UserRepository;
+import com.genesis.resources.repository.UserShards;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark
+{
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserRepository repository;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:users-" + rows + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE Users
+                (
+                    ID       BIGINT       PRIMARY KEY,
+                    Name     VARCHAR(255) NOT NULL,
+                    Surname  VARCHAR(255) NOT NULL,
+                    PersonId VARCHAR(12)  NOT NULL UNIQUE,
+                    Uuid     BINARY(16)   NOT NULL UNIQUE,
+                    Version  BIGINT       DEFAULT 1 NOT NULL
+                )""");
+
+        List<User> users = BenchmarkData.users(rows);
+        jdbcTemplate.batchUpdate("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)", users, 1000,
+                (ps, u) ->
+                {
+                    ps.setLong(1, u.getId());
+                    ps.setString(2, u.getName());
+                    ps.setString(3, u.getSurname());
+                    ps.setString(4, u.getPersonID());
+                    ps.setBytes(5, Uuids.toBytes(u.getUuid()));
+                });
+
+        UserShards shards = new UserShards(List.of(UserShards.Shard.of(0, jdbcTemplate, jdbcTemplate)), null, 0);
+        repository = new UserRepository(shards, new UserCache(false, 0, 0), new UserLoadCoalescer(true), new UserMetrics(new SimpleMeterRegistry()), 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        jdbcTemplate.execute("DROP TABLE Users");
+    }
+
+    @Benchmark
+    public Optional<User> findById()
+    {
+        return repository.findById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public List<User> findPage()
+    {
+        return repository.findPage(ThreadLocalRandom.current().nextLong(0, rows), 100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void forEach(Blackhole blackhole)
+    {
+        repository.forEach(blackhole::consume);
+    }
+}
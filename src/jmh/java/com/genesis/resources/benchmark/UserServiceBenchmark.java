@@ -0,0 +1,77 @@
+package com.genesis.resources.benchmark;
+
+import com.genesis.resources.dto.UserDetailResponse;
+import com.genesis.resources.dto.UserPageResponse;
+import com.genesis.resources.dto.UserResponse;
+import com.genesis.resources.model.User;
+import com.genesis.resources.repository.InMemoryUserRepository;
+import com.genesis.resources.service.UsedPersonIDFilter;
+import com.genesis.resources.service.UserIdempotencyStore;
+import com.genesis.resources.service.UserService;
+import com.genesis.resources.utils.UserMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark
+{
+    @Param({"1000", "100000"})
+    private int rows;
+
+    @Param({"100", "1000"})
+    private int limit;
+
+    private UserService service;
+
+    @Setup
+    public void setup()
+    {
+        InMemoryUserRepository repository = new InMemoryUserRepository();
+
+        for (User u : BenchmarkData.users(rows))
+        {
+            repository.save(u.getName(), u.getSurname(), u.getPersonID(), u.getUuid());
+        }
+
+        // read paths only: no change log, and the idempotency store is never consulted
+        service = new UserService(repository, new UsedPersonIDFilter(repository, false, 1, 0.01),
+                new UserMetrics(new SimpleMeterRegistry()), null, new UserIdempotencyStore(1, 1));
+    }
+
+    @Benchmark
+    public UserPageResponse<UserResponse> getAll()
+    {
+        return service.getAll(0, limit);
+    }
+
+    @Benchmark
+    public UserPageResponse<UserDetailResponse> getAllDetail()
+    {
+        return service.getAllDetail(0, limit);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void streamAllDetail(Blackhole blackhole)
+    {
+        service.streamAllDetail(blackhole::consume);
+    }
+}
@@ -0,0 +1,101 @@
+package com.genesis.loadtest;
+
+import com.genesis.resources.exception.PersonIDAlreadyUsedException;
+import com.genesis.resources.model.User;
+import com.genesis.resources.repository.UserCache;
+import com.genesis.resources.repository.UserLoadCoalescer;
+import com.genesis.resources.repository.UserRepository;
+import com.genesis.resources.repository.UserShards;
+import com.genesis.resources.repository.UserShards.Shard;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The real UserRepository on H2, except for the two statements the load test issues that H2 cannot run:
+ * the single-row INSERT and UPDATE read the new Version back through an OUTPUT clause. Here the insert
+ * assumes the default version and the update bumps Version itself and reads it back with a second query.
+ * Cache, coalescer, shard routing and SQL timers are kept as in UserRepository.
+ */
+final class H2UserRepository extends UserRepository
+{
+    static final String STUBBED = "UserRepository.save and UserRepository.update (OUTPUT clauses) run "
+            + "H2-compatible SQL; the update takes two statements instead of one";
+
+    private final UserShards shards;
+
+    private final UserCache cache;
+
+    private final UserLoadCoalescer coalescer;
+
+    private final UserMetrics metrics;
+
+    H2UserRepository(UserShards shards, UserCache cache, UserLoadCoalescer coalescer, UserMetrics metrics,
+                     int fetchSize)
+    {
+        super(shards, cache, coalescer, metrics, fetchSize);
+
+        this.shards = shards;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public User save(String name, String surname, String personID, UUID uuid)
+    {
+        Shard shard = shards.forPersonID(personID);
+        long id = shards.nextId(shard);
+
+        try
+        {
+            metrics.timeSql("insert", () -> shard.writes().update(
+                    "INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    id, name, surname, personID, Uuids.toBytes(uuid)));
+        } catch (DuplicateKeyException e)
+        {
+            // UUIDs are time-ordered and never repeat, so the PersonID index is the one that rejected it
+            throw new PersonIDAlreadyUsedException(personID);
+        }
+
+        User user = new User(id, name, surname, personID, uuid, 1L);
+        shards.markWrite(shard);
+        cache.put(user);
+
+        return user;
+    }
+
+    @Override
+    public Optional<Long> update(long id, String name, String surname, List<Long> expectedVersions)
+    {
+        if (expectedVersions != null)
+        {
+            throw new UnsupportedOperationException("The load test sends no If-Match");
+        }
+
+        Shard shard = shards.forId(id);
+
+        if (shard == null)
+        {
+            return Optional.empty();
+        }
+
+        int updated = metrics.timeSql("update", () -> shard.writes().update(
+                "UPDATE Users SET Name = COALESCE(NULLIF(?, ''), Name), Surname = COALESCE(NULLIF(?, ''), Surname),"
+                        + " Version = Version + 1 WHERE ID = ?", name, surname, id));
+        shards.markWrite(shard);
+        coalescer.forget(id);
+        cache.invalidate(id);
+
+        if (updated == 0)
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of(shard.writes().queryForObject("SELECT Version FROM Users WHERE ID = ?", Long.class, id));
+    }
+}
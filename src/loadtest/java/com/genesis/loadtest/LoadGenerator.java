@@ -0,0 +1,143 @@
+package com.genesis.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests start on a fixed schedule at the target rate whether or not earlier ones have
+ * finished, and latency is measured from the scheduled start. A slow server therefore shows up as latency
+ * (queueing included) instead of silently lowering the offered load, i.e. no coordinated omission.
+ */
+final class LoadGenerator
+{
+    private final HttpClient client;
+
+    private final URI base;
+
+    private final NavigableMap<Integer, Operation> mix = new TreeMap<>();
+
+    private final int mixTotal;
+
+    private final Zipfian ids;
+
+    // counts every request issued across steps, so creates never reuse a PersonID
+    private long serial;
+
+    LoadGenerator(HttpClient client, URI base, Map<Operation, Integer> weights, Zipfian ids)
+    {
+        this.client = client;
+        this.base = base;
+        this.ids = ids;
+
+        int total = 0;
+
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet())
+        {
+            if (entry.getValue() > 0)
+            {
+                total += entry.getValue();
+                mix.put(total, entry.getKey());
+            }
+        }
+
+        this.mixTotal = total;
+    }
+
+    /**
+     * Offers rps requests per second for warmup + duration; only requests scheduled after the warmup are
+     * recorded. The same seed gives the same sequence of operations and IDs.
+     */
+    StepResult run(int rps, Duration warmup, Duration duration, long seed)
+    {
+        Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+        for (Operation op : Operation.values())
+        {
+            latencies.put(op, new ConcurrentHistogram(3));
+            errors.put(op, new AtomicLong());
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        long interval = 1_000_000_000L / rps;
+        long start = System.nanoTime() + 10_000_000L;
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (long i = 0; ; i++)
+            {
+                long scheduled = start + i * interval;
+
+                if (scheduled >= end)
+                {
+                    break;
+                }
+
+                Operation op = mix.higherEntry(random.nextInt(mixTotal)).getValue();
+                long id = ids.next(random);
+                long n = serial++;
+                boolean measured = scheduled >= measureFrom;
+
+                long wait = scheduled - System.nanoTime();
+
+                if (wait > 0)
+                {
+                    LockSupport.parkNanos(wait);
+                }
+
+                executor.execute(() ->
+                {
+                    boolean failed;
+
+                    try
+                    {
+                        failed = client.send(op.request(base, id, n), HttpResponse.BodyHandlers.discarding())
+                                .statusCode() >= 400;
+                    } catch (Exception e)
+                    {
+                        failed = true;
+                    }
+
+                    if (measured)
+                    {
+                        latencies.get(op).recordValue(System.nanoTime() - scheduled);
+
+                        if (failed)
+                        {
+                            errors.get(op).incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        return new StepResult(rps, duration, latencies, errors);
+    }
+
+    record StepResult(int targetRps, Duration duration, Map<Operation, Histogram> latencies, Map<Operation, AtomicLong> errors)
+    {
+        Histogram total()
+        {
+            Histogram total = new Histogram(3);
+            latencies.values().forEach(total::add);
+
+            return total;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.genesis.loadtest;
+
+import com.genesis.resources.GenesisApplication;
+import com.genesis.resources.repository.UserCache;
+import com.genesis.resources.repository.UserLoadCoalescer;
+import com.genesis.resources.repository.UserRepository;
+import com.genesis.resources.repository.UserShards;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
+import org.HdrHistogram.Histogram;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Whole-stack load test: HTTP -> UserController -> UserService -> UserRepository -> Hikari -> JDBC, at a
+ * sweep of offered rates. Unless loadtest.url points at a running instance, the app is booted in-process
+ * on H2 (MODE=MSSQLServer) standing in for SQL Server, with a Users table seeded with loadtest.users rows.
+ * Reads and lists go through the real UserRepository SQL, UserCache and UserLoadCoalescer; only the
+ * statements H2 cannot run are replaced, see H2UserRepository.
+ * <p>
+ * Writes target/loadtest/{label}.csv with one row per rate and operation (p50/p90/p99/p99.9/max in ms
+ * and achieved throughput), which is the throughput-vs-latency curve and is meant to be diffed between
+ * builds, plus a full HdrHistogram percentile distribution per rate and operation, and {label}-setup.txt
+ * naming the parameters and the layers that were stubbed.
+ * <p>
+ * System properties (defaults in brackets): loadtest.rps [500,1000,2000,4000], loadtest.mix
+ * [read=75,write=10,list=10,create=5], loadtest.users [100000], loadtest.zipf [0.99],
+ * loadtest.warmup-seconds [5], loadtest.duration-seconds [20], loadtest.seed [42], loadtest.label [local],
+ * loadtest.output [target/loadtest], loadtest.url. A server behind loadtest.url must whitelist the
+ * C-prefixed PersonIDs of Operation.createdPersonID, or run with create=0.
+ */
+public final class LoadTest
+{
+    private LoadTest()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int[] rates = Arrays.stream(System.getProperty("loadtest.rps", "500,1000,2000,4000").split(","))
+                .mapToInt(r -> Integer.parseInt(r.trim()))
+                .toArray();
+        Map<Operation, Integer> mix = parseMix(System.getProperty("loadtest.mix", "read=75,write=10,list=10,create=5"));
+        int users = Integer.getInteger("loadtest.users", 100_000);
+        double zipf = Double.parseDouble(System.getProperty("loadtest.zipf", "0.99"));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 20));
+        long seed = Long.getLong("loadtest.seed", 42L);
+        String label = System.getProperty("loadtest.label", "local");
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+        String url = System.getProperty("loadtest.url");
+
+        // every request gets a serial, so this many PersonIDs cover the creates whatever the mix
+        long requests = IntStream.of(rates).mapToLong(rps -> rps * (warmup.toSeconds() + duration.toSeconds())).sum();
+
+        ConfigurableApplicationContext app = url == null ? boot(users, requests, output) : null;
+        URI base = URI.create(url != null ? url : "http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+        String stubbed = url != null ? "none" : "SQL Server (H2 in MODE=MSSQLServer); " + H2UserRepository.STUBBED;
+
+        System.out.printf("Load test %s against %s: rates=%s mix=%s users=%d zipf=%.2f%nStubbed: %s%n",
+                label, base, Arrays.toString(rates), mix, users, zipf, stubbed);
+
+        List<LoadGenerator.StepResult> results = new ArrayList<>();
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build())
+        {
+            LoadGenerator generator = new LoadGenerator(client, base, mix, new Zipfian(users, zipf, seed));
+
+            for (int rps : rates)
+            {
+                LoadGenerator.StepResult result = generator.run(rps, warmup, duration, seed + rps);
+                results.add(result);
+
+                Histogram total = result.total();
+                System.out.printf("%6d rps offered: %8.1f achieved, p50=%.2fms p99=%.2fms p99.9=%.2fms%n",
+                        rps, total.getTotalCount() / (double) duration.toSeconds(),
+                        millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(99)),
+                        millis(total.getValueAtPercentile(99.9)));
+            }
+        } finally
+        {
+            if (app != null)
+            {
+                app.close();
+            }
+        }
+
+        write(output, label, results);
+
+        Files.writeString(output.resolve(label + "-setup.txt"), String.format(Locale.ROOT,
+                "target=%s%nrates=%s%nmix=%s%nusers=%d%nzipf=%.2f%nstubbed=%s%n",
+                base, Arrays.toString(rates), mix, users, zipf, stubbed));
+    }
+
+    private static ConfigurableApplicationContext boot(int users, long creates, Path output) throws IOException
+    {
+        String h2 = "jdbc:h2:mem:loadtest;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+
+        // devtools is on the runtime classpath; its restart would boot a second copy of the app
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(h2);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE Users
+                (
+                    ID       BIGINT       PRIMARY KEY,
+                    Name     VARCHAR(255) NOT NULL,
+                    Surname  VARCHAR(255) NOT NULL,
+                    PersonId VARCHAR(12)  NOT NULL UNIQUE,
+                    Uuid     BINARY(16)   NOT NULL UNIQUE,
+                    Version  BIGINT       DEFAULT 1 NOT NULL
+                )""");
+        jdbcTemplate.execute("""
+                CREATE TABLE UserEvents
+                (
+                    EventID    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    Type       VARCHAR(16)  NOT NULL,
+                    UserID     BIGINT       NOT NULL,
+                    Name       VARCHAR(255),
+                    Surname    VARCHAR(255),
+                    PersonID   VARCHAR(12),
+                    Uuid       BINARY(16),
+                    Version    BIGINT,
+                    OccurredAt TIMESTAMP(3) NOT NULL,
+                    WrittenAt  TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP NOT NULL
+                )""");
+
+        // IDs 1..users are pre-sharding IDs, so they live on shard 0 and match what Zipfian draws
+        ParameterizedPreparedStatementSetter<Integer> row = (ps, i) ->
+        {
+            ps.setLong(1, i);
+            ps.setString(2, "Name" + i);
+            ps.setString(3, "Surname" + i);
+            ps.setString(4, String.format("L%011d", i));
+            ps.setBytes(5, Uuids.toBytes(Uuids.timeOrdered()));
+        };
+        jdbcTemplate.batchUpdate("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                IntStream.rangeClosed(1, users).boxed().toList(), 1000, row);
+
+        Files.createDirectories(output);
+        Path personIDs = output.resolve("loadtest-personids.txt");
+        Files.write(personIDs, LongStream.range(0, creates).mapToObj(Operation::createdPersonID).toList());
+
+        return new SpringApplicationBuilder(GenesisApplication.class, StandIn.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + h2,
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "genesis.ratelimit.enabled=false",
+                        "genesis.personid.location=" + personIDs.toUri(),
+                        "logging.level.com.genesis=WARN",
+                        "logging.level.org.springframework.jdbc.core=WARN")
+                .run();
+    }
+
+    @Configuration
+    static class StandIn
+    {
+        @Bean
+        @Primary
+        UserRepository h2UserRepository(UserShards shards, UserCache cache, UserLoadCoalescer coalescer,
+                                        UserMetrics metrics, Environment environment)
+        {
+            int fetchSize = environment.getProperty("genesis.users.fetch-size", Integer.class, 1000);
+
+            return new H2UserRepository(shards, cache, coalescer, metrics, fetchSize);
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix)
+    {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+        for (String part : mix.split(","))
+        {
+            String[] kv = part.split("=");
+            weights.put(Operation.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(kv[1].trim()));
+        }
+
+        return weights;
+    }
+
+    private static void write(Path output, String label, List<LoadGenerator.StepResult> results) throws IOException
+    {
+        Files.createDirectories(output);
+
+        Path csv = output.resolve(label + ".csv");
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv)))
+        {
+            out.println("target_rps,operation,count,errors,achieved_rps,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms");
+
+            for (LoadGenerator.StepResult result : results)
+            {
+                for (Operation op : Operation.values())
+                {
+                    row(out, result, op.name().toLowerCase(Locale.ROOT), result.latencies().get(op), result.errors().get(op).get());
+                }
+
+                long errors = result.errors().values().stream().mapToLong(AtomicLong::get).sum();
+                row(out, result, "all", result.total(), errors);
+            }
+        }
+
+        for (LoadGenerator.StepResult result : results)
+        {
+            for (Operation op : Operation.values())
+            {
+                Path hgrm = output.resolve(label + "-" + result.targetRps() + "-" + op.name().toLowerCase(Locale.ROOT) + ".hgrm");
+
+                try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm)))
+                {
+                    // values are nanoseconds, reported in milliseconds
+                    result.latencies().get(op).outputPercentileDistribution(out, 1_000_000.0);
+                }
+            }
+        }
+
+        System.out.println("Report written to " + csv.toAbsolutePath());
+    }
+
+    private static void row(PrintWriter out, LoadGenerator.StepResult result, String operation, Histogram h, long errors)
+    {
+        out.printf(Locale.ROOT, "%d,%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                result.targetRps(), operation, h.getTotalCount(), errors,
+                h.getTotalCount() / (double) result.duration().toSeconds(),
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+    }
+
+    private static double millis(long nanos)
+    {
+        return nanos / 1_000_000.0;
+    }
+}
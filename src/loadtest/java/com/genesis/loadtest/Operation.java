@@ -0,0 +1,63 @@
+package com.genesis.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+/**
+ * The request kinds of the workload mix; id is a Zipf-drawn user ID, serial numbers the generator's
+ * requests so every create gets a PersonID of its own.
+ */
+enum Operation
+{
+    READ
+    {
+        @Override
+        HttpRequest request(URI base, long id, long serial)
+        {
+            return HttpRequest.newBuilder(base.resolve("/api/v1/users/" + id + "?detail=true")).GET().build();
+        }
+    },
+    WRITE
+    {
+        @Override
+        HttpRequest request(URI base, long id, long serial)
+        {
+            return HttpRequest.newBuilder(base.resolve("/api/v1/users/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"Name" + id + "\"}"))
+                    .build();
+        }
+    },
+    LIST
+    {
+        @Override
+        HttpRequest request(URI base, long id, long serial)
+        {
+            return HttpRequest.newBuilder(base.resolve("/api/v1/users?afterId=" + id + "&limit=100")).GET().build();
+        }
+    },
+    CREATE
+    {
+        @Override
+        HttpRequest request(URI base, long id, long serial)
+        {
+            String body = "{\"name\":\"Load\",\"surname\":\"Test" + serial + "\",\"personID\":\""
+                    + createdPersonID(serial) + "\"}";
+
+            return HttpRequest.newBuilder(base.resolve("/api/v1/users"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    };
+
+    abstract HttpRequest request(URI base, long id, long serial);
+
+    /**
+     * The PersonID CREATE sends for a serial; the in-process app whitelists these up front.
+     */
+    static String createdPersonID(long serial)
+    {
+        return String.format("C%011d", serial);
+    }
+}
@@ -0,0 +1,56 @@
+package com.genesis.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws IDs 1..n with Zipf-distributed popularity. The popularity ranks are shuffled over the IDs, so the
+ * hot users are spread over the table instead of being the oldest rows.
+ */
+final class Zipfian
+{
+    private final double[] cdf;
+
+    private final long[] idByRank;
+
+    Zipfian(int n, double exponent, long seed)
+    {
+        cdf = new double[n];
+        double sum = 0;
+
+        for (int rank = 0; rank < n; rank++)
+        {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+
+        for (int rank = 0; rank < n; rank++)
+        {
+            cdf[rank] /= sum;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        idByRank = new long[n];
+
+        for (int i = 0; i < n; i++)
+        {
+            idByRank[i] = i + 1;
+        }
+
+        for (int i = n - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            long swap = idByRank[i];
+            idByRank[i] = idByRank[j];
+            idByRank[j] = swap;
+        }
+    }
+
+    long next(SplittableRandom random)
+    {
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+
+        // binarySearch returns -(insertion point) - 1 when the value is not an exact hit
+        return idByRank[Math.min(rank >= 0 ? rank : -rank - 1, idByRank.length - 1)];
+    }
+}
@@ -0,0 +1,105 @@
+package com.genesis.resources.controller;
+
+import com.genesis.resources.repository.ReplicaRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Streamed responses (stream=true, export, changes) take as long as the table is big, so handlers returning
+ * a StreamingResponseBody get genesis.users.stream.async-timeout-ms instead of spring.mvc.async.request-timeout,
+ * which stays finite for every other async handler. Async handlers also run with the read-your-writes client
+ * of the request rebound, since they run on another thread than ReadYourWritesFilter's binding.
+ */
+@Configuration
+@Profile("!reactive")
+public class StreamingAsyncConfig implements WebMvcConfigurer
+{
+    private static final String CLIENT_ATTRIBUTE = StreamingAsyncConfig.class.getName() + ".client";
+
+    private static final String BINDING_ATTRIBUTE = StreamingAsyncConfig.class.getName() + ".binding";
+
+    private final long streamTimeoutMs;
+
+    public StreamingAsyncConfig(@Value("${genesis.users.stream.async-timeout-ms:-1}") long streamTimeoutMs)
+    {
+        this.streamTimeoutMs = streamTimeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer)
+    {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor()
+        {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task)
+            {
+                // runs before the async request starts, while its timeout can still be changed
+                if (request instanceof AsyncWebRequest asyncRequest && isStreamingHandler(request))
+                {
+                    asyncRequest.setTimeout(streamTimeoutMs);
+                }
+
+                String client = ReplicaRouter.boundClient();
+
+                if (client != null)
+                {
+                    request.setAttribute(CLIENT_ATTRIBUTE, client, RequestAttributes.SCOPE_REQUEST);
+                }
+            }
+
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> task)
+            {
+                if (request.getAttribute(CLIENT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof String client)
+                {
+                    request.setAttribute(BINDING_ATTRIBUTE, ReplicaRouter.bind(client),
+                            RequestAttributes.SCOPE_REQUEST);
+                }
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult)
+            {
+                // runs on the task's thread after it finished or failed
+                if (request.getAttribute(BINDING_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                        instanceof ReplicaRouter.Binding binding)
+                {
+                    request.removeAttribute(BINDING_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                    binding.close();
+                }
+            }
+        });
+    }
+
+    private static boolean isStreamingHandler(NativeWebRequest request)
+    {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof HandlerMethod handler))
+        {
+            return false;
+        }
+
+        ResolvableType body = ResolvableType.forMethodReturnType(handler.getMethod());
+
+        if (ResponseEntity.class.equals(body.toClass()))
+        {
+            body = body.getGeneric(0);
+        }
+
+        return StreamingResponseBody.class.isAssignableFrom(body.toClass());
+    }
+}
@@ -1,23 +1,62 @@
 package com.genesis.resources.controller;
 
+import com.genesis.resources.dto.UserBatchCreateRequest;
+import com.genesis.resources.dto.UserBatchItemResponse;
+import com.genesis.resources.dto.UserChangeEvent;
 import com.genesis.resources.dto.UserCreateRequest;
 import com.genesis.resources.dto.UserDetailResponse;
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.dto.UserFieldsResponse;
+import com.genesis.resources.dto.UserLookupItemResponse;
+import com.genesis.resources.dto.UserLookupRequest;
+import com.genesis.resources.dto.UserPageResponse;
+import com.genesis.resources.dto.UserResponse;
+import com.genesis.resources.dto.UserSearchCursor;
+import com.genesis.resources.dto.UserSearchRequest;
 import com.genesis.resources.dto.UserUpdateRequest;
 import com.genesis.resources.service.UserService;
+import com.genesis.resources.utils.ETags;
+import com.genesis.resources.utils.UserExportWriter;
+import com.genesis.resources.utils.UserFileFormat;
+import com.genesis.resources.utils.UserImportReader;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/users")
 public class UserController
 {
@@ -25,38 +64,341 @@ public class UserController
 
     private final UserService service;
 
-    public UserController(UserService service)
+    private final ObjectMapper objectMapper;
+
+    private final int defaultPageSize;
+
+    private final int maxPageSize;
+
+    private final int exportFlushRows;
+
+    private final int importChunkSize;
+
+    private final int changesMaxEvents;
+
+    public UserController(UserService service,
+                          ObjectMapper objectMapper,
+                          @Value("${genesis.users.page.default-size:100}") int defaultPageSize,
+                          @Value("${genesis.users.page.max-size:1000}") int maxPageSize,
+                          @Value("${genesis.users.export.flush-rows:1000}") int exportFlushRows,
+                          @Value("${genesis.users.import.chunk-size:50000}") int importChunkSize,
+                          @Value("${genesis.users.changes.max-events:100000}") int changesMaxEvents)
     {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportFlushRows = exportFlushRows;
+        this.importChunkSize = importChunkSize;
+        this.changesMaxEvents = changesMaxEvents;
     }
 
     @PostMapping
-    public UserDetailResponse create(@Valid @RequestBody UserCreateRequest req)
+    public UserDetailResponse create(@Valid @RequestBody UserCreateRequest req,
+                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+    {
+        logger.info("HTTP POST /api/v1/users Idempotency-Key={}", idempotencyKey);
+        return service.create(req, idempotencyKey);
+    }
+
+    @PostMapping("/batch")
+    public List<UserBatchItemResponse> createBatch(@Valid @RequestBody UserBatchCreateRequest req)
     {
-        logger.info("HTTP POST /api/v1/users");
-        return service.create(req);
+        logger.info("HTTP POST /api/v1/users/batch size={}", req.getUsers().size());
+        return service.createBatch(req.getUsers());
+    }
+
+    @PostMapping("/lookup")
+    public List<? extends UserLookupItemResponse<?>> lookup(@Valid @RequestBody UserLookupRequest req,
+                                                           @RequestParam(defaultValue = "false") boolean detail)
+    {
+        logger.info("HTTP POST /api/v1/users/lookup size={} detail={}", req.getIds().size(), detail);
+        return detail ? service.lookupDetail(req.getIds()) : service.lookup(req.getIds());
     }
 
     @GetMapping("/{id}")
-    public Object get(@PathVariable long id,
-                      @RequestParam(defaultValue = "false") boolean detail)
+    public ResponseEntity<Object> get(@PathVariable long id,
+                                      @RequestParam(defaultValue = "false") boolean detail,
+                                      @RequestParam(required = false) String fields,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
     {
-        logger.info("HTTP GET /api/v1/users/{}?detail={}", id, detail);
-        return detail ? service.getDetail(id) : service.get(id);
+        logger.info("HTTP GET /api/v1/users/{}?detail={}&fields={}", id, detail, fields);
+
+        Set<UserField> selected = fields == null ? null : UserField.parse(fields);
+
+        if (fields != null && selected == null)
+        {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // answer revalidations from the version alone before loading the row
+        if (ifNoneMatch != null)
+        {
+            String etag = ETags.forRepresentation(ETags.forVersion(service.getVersion(id)), detail, selected);
+
+            if (ETags.matchesAny(ifNoneMatch, etag))
+            {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        if (selected != null)
+        {
+            UserFieldsResponse user = service.getFields(id, selected);
+
+            String etag = ETags.forRepresentation(ETags.forVersion(user.getVersion()), false, selected);
+
+            return ResponseEntity.ok().eTag(etag).body(user);
+        }
+
+        if (detail)
+        {
+            UserDetailResponse user = service.getDetail(id);
+
+            String etag = ETags.forRepresentation(ETags.forVersion(user.getVersion()), true, null);
+
+            return ResponseEntity.ok().eTag(etag).body(user);
+        }
+
+        UserResponse user = service.get(id);
+
+        return ResponseEntity.ok().eTag(ETags.forVersion(user.getVersion())).body(user);
+    }
+
+    @GetMapping("/by-uuid/{uuid}")
+    public ResponseEntity<Object> getByUuid(@PathVariable UUID uuid,
+                                            @RequestParam(defaultValue = "false") boolean detail,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    {
+        logger.info("HTTP GET /api/v1/users/by-uuid/{}?detail={}", uuid, detail);
+
+        Object user;
+        long version;
+
+        if (detail)
+        {
+            UserDetailResponse found = service.getDetailByUuid(uuid);
+            user = found;
+            version = found.getVersion();
+        } else
+        {
+            UserResponse found = service.getByUuid(uuid);
+            user = found;
+            version = found.getVersion();
+        }
+
+        String etag = ETags.forRepresentation(ETags.forVersion(version), detail, null);
+
+        if (ifNoneMatch != null && ETags.matchesAny(ifNoneMatch, etag))
+        {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        return ResponseEntity.ok().eTag(etag).body(user);
     }
 
     @GetMapping
-    public Object getAll(@RequestParam(defaultValue = "false") boolean detail)
+    public ResponseEntity<UserPageResponse<?>> getAll(@RequestParam(defaultValue = "false") boolean detail,
+                                                      @RequestParam(required = false) String fields,
+                                                      @RequestParam(defaultValue = "0") long afterId,
+                                                      @RequestParam(required = false) Integer limit)
+    {
+        int size = limit == null ? defaultPageSize : Math.clamp(limit, 1, maxPageSize);
+
+        logger.info("HTTP GET /api/v1/users?detail={}&fields={}&afterId={}&limit={}", detail, fields, afterId, size);
+
+        UserPageResponse<?> page;
+        Set<UserField> selected = null;
+
+        if (fields != null)
+        {
+            selected = UserField.parse(fields);
+
+            if (selected == null)
+            {
+                return ResponseEntity.badRequest().build();
+            }
+
+            page = service.getAllFields(afterId, size, selected);
+        } else
+        {
+            page = detail ? service.getAllDetail(afterId, size) : service.getAll(afterId, size);
+        }
+
+        return ResponseEntity.ok().eTag(ETags.forRepresentation(page.getEtag(), detail, selected)).body(page);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserPageResponse<?>> search(UserSearchRequest criteria,
+                                                      @RequestParam(defaultValue = "false") boolean detail,
+                                                      @RequestParam(defaultValue = "0") long afterId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit)
+    {
+        int size = limit == null ? defaultPageSize : Math.clamp(limit, 1, maxPageSize);
+
+        logger.info("HTTP GET /api/v1/users/search name={} surname={} personID={} uuid={} detail={} afterId={} cursor={} limit={}",
+                criteria.getName(), criteria.getSurname(), criteria.getPersonID(), criteria.getUuid(), detail, afterId,
+                cursor, size);
+
+        // name and surname searches are ordered by name, so only their nextCursor can resume them
+        if (!criteria.hasCriteria() || (cursor == null && afterId != 0 && criteria.ordersByName()))
+        {
+            return ResponseEntity.badRequest().build();
+        }
+
+        UserSearchCursor after;
+
+        try
+        {
+            after = cursor == null ? UserSearchCursor.afterId(afterId) : UserSearchCursor.decode(cursor);
+        } catch (IllegalArgumentException e)
+        {
+            logger.warn("Search rejected – malformed cursor={}", cursor);
+
+            return ResponseEntity.badRequest().build();
+        }
+
+        UserPageResponse<?> page = detail
+                ? service.searchDetail(criteria, after, size)
+                : service.search(criteria, after, size);
+
+        return ResponseEntity.ok().eTag(ETags.forRepresentation(page.getEtag(), detail, null)).body(page);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(defaultValue = "false") boolean detail)
     {
-        logger.info("HTTP GET /api/v1/users?detail={}", detail);
-        return detail ? service.getAllDetail() : service.getAll();
+        logger.info("HTTP GET /api/v1/users?stream=true&detail={}", detail);
+
+        StreamingResponseBody body = out ->
+        {
+            try (JsonGenerator generator = objectMapper.createGenerator(out))
+            {
+                generator.writeStartArray();
+
+                if (detail)
+                {
+                    service.streamAllDetail(generator::writePOJO);
+                } else
+                {
+                    service.streamAll(generator::writePOJO);
+                }
+
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip)
+    {
+        logger.info("HTTP GET /api/v1/users/export?format={}&gzip={}", format, gzip);
+
+        UserFileFormat exportFormat = UserFileFormat.of(format);
+
+        if (exportFormat == null)
+        {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ObjectWriter json = objectMapper.writerFor(UserDetailResponse.class);
+
+        StreamingResponseBody body = out ->
+        {
+            try (UserExportWriter writer = new UserExportWriter(exportFormat, json, out, gzip, exportFlushRows))
+            {
+                service.streamAllDetail(writer::write);
+
+                logger.info("Exported {} users as {}", writer.rows(), exportFormat);
+            }
+        };
+
+        String filename = "users." + exportFormat.extension() + (gzip ? ".gz" : "");
+
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<StreamingResponseBody> changes(@RequestParam(defaultValue = "0") long since,
+                                                         @RequestParam(required = false) Integer limit)
+    {
+        int size = limit == null ? changesMaxEvents : Math.clamp(limit, 1, changesMaxEvents);
+
+        logger.info("HTTP GET /api/v1/users/changes?since={}&limit={}", since, size);
+
+        ObjectWriter json = objectMapper.writerFor(UserChangeEvent.class);
+
+        // one event per line; a client resumes with since = offset of the last line it processed
+        StreamingResponseBody body = out ->
+        {
+            AtomicLong rows = new AtomicLong();
+
+            service.streamChanges(since, size, event ->
+                    writeLine(out, json, event, rows.incrementAndGet() % exportFlushRows == 0));
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    @PostMapping("/import")
+    public void importUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                            InputStream body,
+                            HttpServletResponse response) throws IOException
+    {
+        logger.info("HTTP POST /api/v1/users/import?format={} Content-Encoding={}", format, contentEncoding);
+
+        UserFileFormat importFormat = UserFileFormat.of(format);
+
+        if (importFormat == null)
+        {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported format: " + format);
+            return;
+        }
+
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+        UserImportReader reader;
+
+        try
+        {
+            reader = new UserImportReader(importFormat, objectMapper.readerFor(UserCreateRequest.class), in);
+        } catch (IllegalArgumentException e)
+        {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setContentType("application/x-ndjson");
+
+        ObjectWriter json = objectMapper.writer();
+        OutputStream out = response.getOutputStream();
+
+        try (reader)
+        {
+            // every line is flushed, so clients see row errors without waiting for the chunk to finish
+            service.importUsers(reader, importChunkSize,
+                    error -> writeLine(out, json, error, true),
+                    progress -> writeLine(out, json, progress, true));
+        }
     }
 
     @PutMapping("/{id}")
-    public void update(@PathVariable long id, @RequestBody UserUpdateRequest req)
+    public ResponseEntity<Void> update(@PathVariable long id,
+                                       @RequestBody UserUpdateRequest req,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
     {
-        logger.info("HTTP PUT /api/v1/users/{}", id);
-        service.update(id, req);
+        logger.info("HTTP PUT /api/v1/users/{} If-Match={}", id, ifMatch);
+
+        long version = service.update(id, req, ifMatch == null ? null : ETags.parseIfMatch(ifMatch));
+
+        return ResponseEntity.ok().eTag(ETags.forVersion(version)).build();
     }
 
     @DeleteMapping("/{id}")
@@ -65,4 +407,21 @@ public class UserController
         logger.info("HTTP DELETE /api/v1/users/{}", id);
         service.delete(id);
     }
+
+    private static void writeLine(OutputStream out, ObjectWriter json, Object value, boolean flush)
+    {
+        try
+        {
+            out.write(json.writeValueAsBytes(value));
+            out.write('\n');
+
+            if (flush)
+            {
+                out.flush();
+            }
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
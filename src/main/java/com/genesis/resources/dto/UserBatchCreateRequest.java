@@ -0,0 +1,29 @@
+package com.genesis.resources.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class UserBatchCreateRequest
+{
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid UserCreateRequest> users;
+
+    public UserBatchCreateRequest()
+    {
+    }
+
+    public List<UserCreateRequest> getUsers()
+    {
+        return users;
+    }
+
+    public void setUsers(List<UserCreateRequest> users)
+    {
+        this.users = users;
+    }
+}
@@ -0,0 +1,52 @@
+package com.genesis.resources.dto;
+
+public class UserBatchItemResponse
+{
+
+    private int index;
+
+    private UserBatchItemStatus status;
+
+    private UserDetailResponse user;
+
+    public UserBatchItemResponse()
+    {
+    }
+
+    public UserBatchItemResponse(int index, UserBatchItemStatus status, UserDetailResponse user)
+    {
+        this.index = index;
+        this.status = status;
+        this.user = user;
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    public void setIndex(int index)
+    {
+        this.index = index;
+    }
+
+    public UserBatchItemStatus getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(UserBatchItemStatus status)
+    {
+        this.status = status;
+    }
+
+    public UserDetailResponse getUser()
+    {
+        return user;
+    }
+
+    public void setUser(UserDetailResponse user)
+    {
+        this.user = user;
+    }
+}
@@ -0,0 +1,9 @@
+package com.genesis.resources.dto;
+
+public enum UserBatchItemStatus
+{
+    CREATED,
+    INVALID_PERSON_ID,
+    PERSON_ID_ALREADY_USED,
+    DUPLICATE_IN_BATCH
+}
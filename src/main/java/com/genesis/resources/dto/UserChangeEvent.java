@@ -0,0 +1,141 @@
+package com.genesis.resources.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the change feed. UPDATED carries only the fields the update set (null means unchanged);
+ * DELETED carries just the ID. The offset is assigned when the entry is written to UserEvents.
+ */
+public class UserChangeEvent
+{
+
+    private Long offset;
+
+    private UserChangeType type;
+
+    // a JSON string, as UserResponse.id
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private long id;
+
+    private String name;
+
+    private String surname;
+
+    private String personID;
+
+    private UUID uuid;
+
+    private Long version;
+
+    private Instant occurredAt;
+
+    public UserChangeEvent()
+    {
+    }
+
+    public UserChangeEvent(UserChangeType type, long id, String name, String surname, String personID, UUID uuid,
+                           Long version, Instant occurredAt)
+    {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.surname = surname;
+        this.personID = personID;
+        this.uuid = uuid;
+        this.version = version;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getOffset()
+    {
+        return offset;
+    }
+
+    public void setOffset(Long offset)
+    {
+        this.offset = offset;
+    }
+
+    public UserChangeType getType()
+    {
+        return type;
+    }
+
+    public void setType(UserChangeType type)
+    {
+        this.type = type;
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public void setId(long id)
+    {
+        this.id = id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public String getSurname()
+    {
+        return surname;
+    }
+
+    public void setSurname(String surname)
+    {
+        this.surname = surname;
+    }
+
+    public String getPersonID()
+    {
+        return personID;
+    }
+
+    public void setPersonID(String personID)
+    {
+        this.personID = personID;
+    }
+
+    public UUID getUuid()
+    {
+        return uuid;
+    }
+
+    public void setUuid(UUID uuid)
+    {
+        this.uuid = uuid;
+    }
+
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(Long version)
+    {
+        this.version = version;
+    }
+
+    public Instant getOccurredAt()
+    {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt)
+    {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.genesis.resources.dto;
+
+public enum UserChangeType
+{
+    CREATED,
+    UPDATED,
+    DELETED
+}
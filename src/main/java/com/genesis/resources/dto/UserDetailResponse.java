@@ -1,23 +1,32 @@
 package com.genesis.resources.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.util.UUID;
+
 public class UserDetailResponse
 {
 
+    // a JSON string, as UserResponse.id
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long id;
     private String name;
     private String surname;
 
     private String personID;
 
-    private String uuid;
+    private UUID uuid;
+
+    private Long version;
 
-    public UserDetailResponse(Long id, String name, String surname, String personID, String uuid)
+    public UserDetailResponse(Long id, String name, String surname, String personID, UUID uuid, Long version)
     {
         this.id = id;
         this.name = name;
         this.surname = surname;
         this.personID = personID;
         this.uuid = uuid;
+        this.version = version;
     }
 
     public Long getId()
@@ -60,13 +69,23 @@ public class UserDetailResponse
         this.personID = personID;
     }
 
-    public String getUuid()
+    public UUID getUuid()
     {
         return uuid;
     }
 
-    public void setUuid(String uuid)
+    public void setUuid(UUID uuid)
     {
         this.uuid = uuid;
     }
+
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(Long version)
+    {
+        this.version = version;
+    }
 }
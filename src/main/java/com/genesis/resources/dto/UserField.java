@@ -0,0 +1,69 @@
+package com.genesis.resources.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields selectable with ?fields=, by their JSON names.
+ */
+public enum UserField
+{
+    ID("id"),
+    NAME("name"),
+    SURNAME("surname"),
+    PERSON_ID("personID"),
+    UUID("uuid"),
+    VERSION("version");
+
+    private final String jsonName;
+
+    UserField(String jsonName)
+    {
+        this.jsonName = jsonName;
+    }
+
+    public String jsonName()
+    {
+        return jsonName;
+    }
+
+    public static UserField of(String name)
+    {
+        for (UserField field : values())
+        {
+            if (field.jsonName.equalsIgnoreCase(name))
+            {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * A comma-separated list such as "id,name,uuid"; null when it names no field or an unknown one.
+     */
+    public static Set<UserField> parse(String fields)
+    {
+        Set<UserField> selected = EnumSet.noneOf(UserField.class);
+
+        for (String name : fields.split(","))
+        {
+            if (name.isBlank())
+            {
+                continue;
+            }
+
+            UserField field = of(name.trim());
+
+            if (field == null)
+            {
+                return null;
+            }
+
+            selected.add(field);
+        }
+
+        return selected.isEmpty() ? null : selected;
+    }
+}
@@ -0,0 +1,35 @@
+package com.genesis.resources.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Map;
+
+/**
+ * A user reduced to the fields asked for with ?fields=; the version is always known for the ETag.
+ */
+public class UserFieldsResponse
+{
+
+    private final Map<String, Object> fields;
+
+    @JsonIgnore
+    private final long version;
+
+    public UserFieldsResponse(Map<String, Object> fields, long version)
+    {
+        this.fields = fields;
+        this.version = version;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getFields()
+    {
+        return fields;
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+}
@@ -0,0 +1,70 @@
+package com.genesis.resources.dto;
+
+public class UserImportProgress
+{
+
+    private long read;
+
+    private long created;
+
+    private long rejected;
+
+    private boolean done;
+
+    public UserImportProgress()
+    {
+    }
+
+    public UserImportProgress(long read, long created, long rejected, boolean done)
+    {
+        this.read = read;
+        this.created = created;
+        this.rejected = rejected;
+        this.done = done;
+    }
+
+    public String getType()
+    {
+        return "progress";
+    }
+
+    public long getRead()
+    {
+        return read;
+    }
+
+    public void setRead(long read)
+    {
+        this.read = read;
+    }
+
+    public long getCreated()
+    {
+        return created;
+    }
+
+    public void setCreated(long created)
+    {
+        this.created = created;
+    }
+
+    public long getRejected()
+    {
+        return rejected;
+    }
+
+    public void setRejected(long rejected)
+    {
+        this.rejected = rejected;
+    }
+
+    public boolean isDone()
+    {
+        return done;
+    }
+
+    public void setDone(boolean done)
+    {
+        this.done = done;
+    }
+}
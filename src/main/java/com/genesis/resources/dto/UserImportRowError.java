@@ -0,0 +1,70 @@
+package com.genesis.resources.dto;
+
+public class UserImportRowError
+{
+
+    private long line;
+
+    private UserImportStatus status;
+
+    private String personID;
+
+    private String message;
+
+    public UserImportRowError()
+    {
+    }
+
+    public UserImportRowError(long line, UserImportStatus status, String personID, String message)
+    {
+        this.line = line;
+        this.status = status;
+        this.personID = personID;
+        this.message = message;
+    }
+
+    public String getType()
+    {
+        return "error";
+    }
+
+    public long getLine()
+    {
+        return line;
+    }
+
+    public void setLine(long line)
+    {
+        this.line = line;
+    }
+
+    public UserImportStatus getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(UserImportStatus status)
+    {
+        this.status = status;
+    }
+
+    public String getPersonID()
+    {
+        return personID;
+    }
+
+    public void setPersonID(String personID)
+    {
+        this.personID = personID;
+    }
+
+    public String getMessage()
+    {
+        return message;
+    }
+
+    public void setMessage(String message)
+    {
+        this.message = message;
+    }
+}
@@ -0,0 +1,9 @@
+package com.genesis.resources.dto;
+
+public enum UserImportStatus
+{
+    MALFORMED,
+    INVALID_PERSON_ID,
+    PERSON_ID_ALREADY_USED,
+    DUPLICATE_IN_FILE
+}
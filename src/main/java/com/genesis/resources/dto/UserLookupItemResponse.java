@@ -0,0 +1,56 @@
+package com.genesis.resources.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+public class UserLookupItemResponse<T>
+{
+
+    // a JSON string, as UserResponse.id
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private long id;
+
+    private UserLookupItemStatus status;
+
+    private T user;
+
+    public UserLookupItemResponse()
+    {
+    }
+
+    public UserLookupItemResponse(long id, UserLookupItemStatus status, T user)
+    {
+        this.id = id;
+        this.status = status;
+        this.user = user;
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public void setId(long id)
+    {
+        this.id = id;
+    }
+
+    public UserLookupItemStatus getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(UserLookupItemStatus status)
+    {
+        this.status = status;
+    }
+
+    public T getUser()
+    {
+        return user;
+    }
+
+    public void setUser(T user)
+    {
+        this.user = user;
+    }
+}
@@ -0,0 +1,7 @@
+package com.genesis.resources.dto;
+
+public enum UserLookupItemStatus
+{
+    FOUND,
+    NOT_FOUND
+}
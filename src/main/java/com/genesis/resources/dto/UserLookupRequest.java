@@ -0,0 +1,29 @@
+package com.genesis.resources.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class UserLookupRequest
+{
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull Long> ids;
+
+    public UserLookupRequest()
+    {
+    }
+
+    public List<Long> getIds()
+    {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids)
+    {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,72 @@
+package com.genesis.resources.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+public class UserPageResponse<T>
+{
+
+    private List<T> items;
+
+    // a JSON string, as UserResponse.id
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long nextAfterId;
+
+    // search pages only: an opaque UserSearchCursor for ?cursor=
+    private String nextCursor;
+
+    @JsonIgnore
+    private String etag;
+
+    public UserPageResponse()
+    {
+    }
+
+    public UserPageResponse(List<T> items, Long nextAfterId)
+    {
+        this.items = items;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<T> getItems()
+    {
+        return items;
+    }
+
+    public void setItems(List<T> items)
+    {
+        this.items = items;
+    }
+
+    public Long getNextAfterId()
+    {
+        return nextAfterId;
+    }
+
+    public void setNextAfterId(Long nextAfterId)
+    {
+        this.nextAfterId = nextAfterId;
+    }
+
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getEtag()
+    {
+        return etag;
+    }
+
+    public void setEtag(String etag)
+    {
+        this.etag = etag;
+    }
+}
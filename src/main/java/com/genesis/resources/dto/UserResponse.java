@@ -1,21 +1,30 @@
 package com.genesis.resources.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+
 public class UserResponse
 {
 
+    // snowflake IDs exceed 2^53, which JavaScript clients would silently round as numbers, so every response
+    // carries IDs as JSON strings ("id":"123"); this changed the API from numeric IDs, clients parsing them
+    // as numbers must read strings. Requests still take IDs as path numbers.
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long id;
     private String name;
     private String surname;
 
+    private Long version;
+
     public UserResponse()
     {
     }
 
-    public UserResponse(Long id, String name, String surname)
+    public UserResponse(Long id, String name, String surname, Long version)
     {
         this.id = id;
         this.name = name;
         this.surname = surname;
+        this.version = version;
     }
 
     public Long getId()
@@ -47,4 +56,14 @@ public class UserResponse
     {
         this.surname = surname;
     }
+
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(Long version)
+    {
+        this.version = version;
+    }
 }
@@ -0,0 +1,61 @@
+package com.genesis.resources.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position of a search page: the last row's ID, and its name and surname for searches ordered by the
+ * (Name, Surname) or (Surname, Name) index. Clients get it as an opaque token in nextCursor and send it
+ * back as ?cursor=.
+ */
+public record UserSearchCursor(long id, String name, String surname)
+{
+    public static UserSearchCursor afterId(long id)
+    {
+        return new UserSearchCursor(id, null, null);
+    }
+
+    public boolean hasNames()
+    {
+        return name != null && surname != null;
+    }
+
+    public String encode()
+    {
+        // the name's length tells where it ends, so any character may appear in either value
+        String value = hasNames() ? id + ":" + name.length() + ":" + name + surname : String.valueOf(id);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by encode()
+     */
+    public static UserSearchCursor decode(String token)
+    {
+        String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int idEnd = value.indexOf(':');
+
+        if (idEnd < 0)
+        {
+            return afterId(Long.parseLong(value));
+        }
+
+        int lengthEnd = value.indexOf(':', idEnd + 1);
+
+        if (lengthEnd < 0)
+        {
+            throw new IllegalArgumentException("Malformed search cursor");
+        }
+
+        long id = Long.parseLong(value.substring(0, idEnd));
+        int nameEnd = lengthEnd + 1 + Integer.parseInt(value.substring(idEnd + 1, lengthEnd));
+
+        if (nameEnd < lengthEnd + 1 || nameEnd > value.length())
+        {
+            throw new IllegalArgumentException("Malformed search cursor");
+        }
+
+        return new UserSearchCursor(id, value.substring(lengthEnd + 1, nameEnd), value.substring(nameEnd));
+    }
+}
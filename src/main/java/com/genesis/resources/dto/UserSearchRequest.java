@@ -0,0 +1,88 @@
+package com.genesis.resources.dto;
+
+import com.google.common.base.Strings;
+
+import java.util.UUID;
+
+public class UserSearchRequest
+{
+
+    // prefix match
+    private String name;
+
+    // prefix match
+    private String surname;
+
+    // exact match
+    private String personID;
+
+    // exact match
+    private UUID uuid;
+
+    public UserSearchRequest()
+    {
+    }
+
+    public UserSearchRequest(String name, String surname, String personID, UUID uuid)
+    {
+        this.name = name;
+        this.surname = surname;
+        this.personID = personID;
+        this.uuid = uuid;
+    }
+
+    /**
+     * Name and surname searches page in (Name, Surname) or (Surname, Name) order, so they need a cursor
+     * rather than an afterId.
+     */
+    public boolean ordersByName()
+    {
+        return !Strings.isNullOrEmpty(name) || !Strings.isNullOrEmpty(surname);
+    }
+
+    public boolean hasCriteria()
+    {
+        return !Strings.isNullOrEmpty(name) || !Strings.isNullOrEmpty(surname)
+                || !Strings.isNullOrEmpty(personID) || uuid != null;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public String getSurname()
+    {
+        return surname;
+    }
+
+    public void setSurname(String surname)
+    {
+        this.surname = surname;
+    }
+
+    public String getPersonID()
+    {
+        return personID;
+    }
+
+    public void setPersonID(String personID)
+    {
+        this.personID = personID;
+    }
+
+    public UUID getUuid()
+    {
+        return uuid;
+    }
+
+    public void setUuid(UUID uuid)
+    {
+        this.uuid = uuid;
+    }
+}
@@ -1,7 +1,11 @@
 package com.genesis.resources.exception;
 
+import com.genesis.resources.utils.UserMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,12 +17,19 @@ public class GlobalExceptionHandler
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final UserMetrics metrics;
+
+    public GlobalExceptionHandler(UserMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFound(UserNotFoundException ex)
     {
         logger.warn("UserNotFoundException: {}", ex.getMessage());
 
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        return respond(HttpStatus.NOT_FOUND, ex, ex.getMessage());
     }
 
     @ExceptionHandler(InvalidPersonIDException.class)
@@ -26,7 +37,7 @@ public class GlobalExceptionHandler
     {
         logger.warn("InvalidPersonIDException: {}", ex.getMessage());
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, ex, ex.getMessage());
     }
 
     @ExceptionHandler(PersonIDAlreadyUsedException.class)
@@ -34,7 +45,43 @@ public class GlobalExceptionHandler
     {
         logger.warn("PersonIDAlreadyUsedException: {}", ex.getMessage());
 
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        return respond(HttpStatus.CONFLICT, ex, ex.getMessage());
+    }
+
+    @ExceptionHandler(UserVersionMismatchException.class)
+    public ResponseEntity<String> handleVersionMismatch(UserVersionMismatchException ex)
+    {
+        logger.warn("UserVersionMismatchException: {}", ex.getMessage());
+
+        return respond(HttpStatus.PRECONDITION_FAILED, ex, ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex)
+    {
+        logger.warn("IdempotencyKeyReusedException: {}", ex.getMessage());
+
+        return respond(HttpStatus.UNPROCESSABLE_ENTITY, ex, ex.getMessage());
+    }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<String> handleDuplicateKey(DuplicateKeyException ex)
+    {
+        logger.warn("DuplicateKeyException: {}", ex.getMostSpecificCause().getMessage());
+
+        return respond(HttpStatus.CONFLICT, ex, "User data conflicts with an existing user.");
+    }
+
+    // CannotGetJdbcConnectionException on the servlet stack, an exhausted R2DBC pool on the reactive one
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<String> handleNoConnection(DataAccessResourceFailureException ex)
+    {
+        logger.warn("{}: {}", ex.getClass().getSimpleName(), ex.getMostSpecificCause().getMessage());
+        metrics.countError(ex.getClass().getSimpleName(), HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Server is busy, retry later.");
     }
 
     @ExceptionHandler(Exception.class)
@@ -42,6 +89,13 @@ public class GlobalExceptionHandler
     {
         logger.error("Unexpected error", ex);
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error");
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, ex, "Unexpected error");
+    }
+
+    private ResponseEntity<String> respond(HttpStatus status, Exception ex, String body)
+    {
+        metrics.countError(ex.getClass().getSimpleName(), status.value());
+
+        return ResponseEntity.status(status).body(body);
     }
 }
@@ -0,0 +1,10 @@
+package com.genesis.resources.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException
+{
+
+    public IdempotencyKeyReusedException(String key)
+    {
+        super("Idempotency-Key " + key + " was already used with a different request.");
+    }
+}
@@ -1,5 +1,7 @@
 package com.genesis.resources.exception;
 
+import java.util.UUID;
+
 public class UserNotFoundException extends RuntimeException
 {
 
@@ -7,4 +9,9 @@ public class UserNotFoundException extends RuntimeException
     {
         super("User with ID " + id + " does not exist.");
     }
+
+    public UserNotFoundException(UUID uuid)
+    {
+        super("User with UUID " + uuid + " does not exist.");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.genesis.resources.exception;
+
+public class UserVersionMismatchException extends RuntimeException
+{
+
+    public UserVersionMismatchException(long id)
+    {
+        super("User with ID " + id + " was modified since the given version.");
+    }
+}
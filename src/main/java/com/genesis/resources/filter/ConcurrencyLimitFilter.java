@@ -0,0 +1,209 @@
+package com.genesis.resources.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the /api/ requests in flight at about the connection pool size, queueing a bounded number for a short
+ * while and answering 503 beyond that. Streamed requests (stream=true, export, changes, import) hold their
+ * permit for as long as the transfer takes, so they draw from a separate, smaller pool and a few slow
+ * exports cannot turn every other request away.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter
+{
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final String USERS = "/api/v1/users";
+
+    private static final Set<String> STREAMING_PATHS = Set.of(USERS + "/export", USERS + "/changes", USERS + "/import");
+
+    private final Semaphore permits;
+
+    private final Semaphore streamingPermits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final int maxQueue;
+
+    private final long queueTimeoutMs;
+
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(@Value("${genesis.backpressure.max-concurrent:20}") int maxConcurrent,
+                                  @Value("${genesis.backpressure.max-queue:200}") int maxQueue,
+                                  @Value("${genesis.backpressure.queue-timeout-ms:1000}") long queueTimeoutMs,
+                                  @Value("${genesis.backpressure.max-streaming:2}") int maxStreaming,
+                                  MeterRegistry registry)
+    {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.streamingPermits = new Semaphore(maxStreaming, true);
+        this.maxQueue = maxQueue;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.rejected = Counter.builder("genesis.backpressure.rejected")
+                .description("Requests rejected with 503 because the concurrency limit and queue were full")
+                .register(registry);
+
+        Gauge.builder("genesis.backpressure.in.flight", permits, p -> maxConcurrent - p.availablePermits()).register(registry);
+        Gauge.builder("genesis.backpressure.queued", waiting, AtomicInteger::get).register(registry);
+        Gauge.builder("genesis.backpressure.streaming.in.flight", streamingPermits,
+                p -> maxStreaming - p.availablePermits()).register(registry);
+
+        logger.info("Request concurrency limit enabled: maxConcurrent={}, maxStreaming={}, maxQueue={}, "
+                + "queueTimeout={}ms", maxConcurrent, maxStreaming, maxQueue, queueTimeoutMs);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException
+    {
+        Semaphore pool = isStreaming(request) ? streamingPermits : permits;
+
+        if (!acquire(pool))
+        {
+            logger.warn("Rejecting {} {} – concurrency limit reached", request.getMethod(), request.getRequestURI());
+            rejected.increment();
+
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.getWriter().write("Server is busy, retry later.");
+
+            return;
+        }
+
+        boolean async = false;
+
+        try
+        {
+            chain.doFilter(request, response);
+
+            // streamed responses (stream=true, export, changes) keep their connection after this thread
+            // returns, so their permit is held until the async request ends
+            if (request.isAsyncStarted())
+            {
+                request.getAsyncContext().addListener(new ReleaseOnEnd(pool));
+                async = true;
+            }
+        } finally
+        {
+            if (!async)
+            {
+                pool.release();
+            }
+        }
+    }
+
+    private static boolean isStreaming(HttpServletRequest request)
+    {
+        String path = request.getRequestURI();
+
+        if (path.endsWith("/"))
+        {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        return STREAMING_PATHS.contains(path) || (USERS.equals(path) && "true".equals(request.getParameter("stream")));
+    }
+
+    private boolean acquire(Semaphore pool)
+    {
+        if (pool.tryAcquire())
+        {
+            return true;
+        }
+
+        if (waiting.incrementAndGet() > maxQueue)
+        {
+            waiting.decrementAndGet();
+
+            return false;
+        }
+
+        try
+        {
+            return pool.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            return false;
+        } finally
+        {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private static final class ReleaseOnEnd implements AsyncListener
+    {
+        private final Semaphore pool;
+
+        // onComplete normally follows onError and onTimeout; whichever comes first releases
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnEnd(Semaphore pool)
+        {
+            this.pool = pool;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event)
+        {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event)
+        {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event)
+        {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event)
+        {
+            // a new async cycle drops the listeners, so register again for it
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release()
+        {
+            if (released.compareAndSet(false, true))
+            {
+                pool.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.genesis.resources.filter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets for /api/. Clients are told apart by API key header when the key is one of
+ * genesis.ratelimit.api-keys (name:key entries), otherwise by remote address: an unknown key would let one
+ * caller open a fresh bucket per request and push everyone else's out of the cache. 429s are counted per
+ * key name, and under client=ip for everyone else, so the series stay as few as the configured keys. Endpoints that touch many rows take list-cost
+ * tokens, everything else one. Runs ahead of ConcurrencyLimitFilter, so a throttled client never holds a permit.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@ConditionalOnProperty(name = "genesis.ratelimit.enabled", havingValue = "true")
+public class RateLimitFilter extends OncePerRequestFilter
+{
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String USERS = "/api/v1/users";
+
+    private static final Set<String> BULK_PATHS = Set.of(
+            USERS + "/search", USERS + "/export", USERS + "/changes", USERS + "/batch", USERS + "/import",
+            USERS + "/lookup");
+
+    private final double tokensPerSecond;
+
+    private final long burst;
+
+    private final int listCost;
+
+    private final String apiKeyHeader;
+
+    // digest of each configured key -> its name
+    private final Map<String, String> apiKeyNames;
+
+    private final LongSupplier clock;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    // one series per key name plus one for anonymous callers; a tag per address would grow with max-clients
+    private final Map<String, Counter> throttled = new HashMap<>();
+
+    private final Counter throttledAnonymous;
+
+    @Autowired
+    public RateLimitFilter(@Value("${genesis.ratelimit.tokens-per-second:50}") double tokensPerSecond,
+                           @Value("${genesis.ratelimit.burst:100}") long burst,
+                           @Value("${genesis.ratelimit.list-cost:10}") int listCost,
+                           @Value("${genesis.ratelimit.idle-seconds:600}") long idleSeconds,
+                           @Value("${genesis.ratelimit.max-clients:100000}") long maxClients,
+                           @Value("${genesis.ratelimit.api-key-header:X-API-Key}") String apiKeyHeader,
+                           @Value("${genesis.ratelimit.api-keys:}") Set<String> apiKeys,
+                           MeterRegistry registry)
+    {
+        this(tokensPerSecond, burst, listCost, idleSeconds, maxClients, apiKeyHeader, apiKeys, registry,
+                System::nanoTime);
+    }
+
+    RateLimitFilter(double tokensPerSecond, long burst, int listCost, long idleSeconds, long maxClients,
+                    String apiKeyHeader, Set<String> apiKeys, MeterRegistry registry, LongSupplier clock)
+    {
+        if (listCost > burst)
+        {
+            throw new IllegalArgumentException("genesis.ratelimit.list-cost (" + listCost
+                    + ") exceeds genesis.ratelimit.burst (" + burst + "), list requests could never pass");
+        }
+
+        this.tokensPerSecond = tokensPerSecond;
+        this.burst = burst;
+        this.listCost = listCost;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeyNames = new HashMap<>();
+        this.clock = clock;
+        this.buckets = CacheBuilder.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .build();
+
+        for (String entry : apiKeys)
+        {
+            if (entry.isBlank())
+            {
+                continue;
+            }
+
+            int separator = entry.indexOf(':');
+            String key = entry.substring(separator + 1).trim();
+            // an unnamed key is named by its digest, never by the key itself
+            String name = separator > 0 ? entry.substring(0, separator).trim() : digest(key);
+
+            apiKeyNames.put(digest(key), name);
+            throttled.computeIfAbsent(name, n -> throttledCounter(n, registry));
+        }
+
+        this.throttledAnonymous = throttledCounter("ip", registry);
+
+        Gauge.builder("genesis.ratelimit.clients", buckets, Cache::size)
+                .description("Clients with a live token bucket")
+                .register(registry);
+
+        logger.info("Rate limit enabled: {} tokens/s, burst={}, listCost={}, idle eviction after {}s, {} API keys",
+                tokensPerSecond, burst, listCost, idleSeconds, apiKeyNames.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException
+    {
+        String client = clientOf(request);
+        long now = clock.getAsLong();
+
+        TokenBucket bucket = buckets.getIfPresent(client);
+
+        if (bucket == null)
+        {
+            bucket = buckets.asMap().computeIfAbsent(client, c -> new TokenBucket(tokensPerSecond, burst, now));
+        }
+
+        long waitNanos = bucket.tryTake(costOf(request), now);
+
+        if (waitNanos > 0)
+        {
+            logger.warn("Rejecting {} {} – rate limit reached for client {}",
+                    request.getMethod(), request.getRequestURI(), client);
+            (client.startsWith("key:") ? throttled.get(client.substring("key:".length())) : throttledAnonymous)
+                    .increment();
+
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf((waitNanos + 999_999_999L) / 1_000_000_000L));
+            response.getWriter().write("Too many requests, retry later.");
+
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    int costOf(HttpServletRequest request)
+    {
+        String path = request.getRequestURI();
+
+        if (path.endsWith("/"))
+        {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        boolean list = BULK_PATHS.contains(path) || (USERS.equals(path) && "GET".equals(request.getMethod()));
+
+        return list ? listCost : 1;
+    }
+
+    private String clientOf(HttpServletRequest request)
+    {
+        String apiKey = request.getHeader(apiKeyHeader);
+        String digest = apiKey == null || apiKey.isBlank() ? null : digest(apiKey);
+
+        String name = digest == null ? null : apiKeyNames.get(digest);
+
+        if (name == null)
+        {
+            return "ip:" + request.getRemoteAddr();
+        }
+
+        return "key:" + name;
+    }
+
+    private static Counter throttledCounter(String client, MeterRegistry registry)
+    {
+        return Counter.builder("genesis.ratelimit.throttled")
+                .description("Requests rejected with 429, per API key name, client=ip for anonymous callers")
+                .tag("client", client)
+                .register(registry);
+    }
+
+    // the key itself would end up in logs, so unnamed keys are known by a digest of it
+    private static String digest(String apiKey)
+    {
+        return Hashing.sha256().hashString(apiKey, StandardCharsets.UTF_8).toString().substring(0, 16);
+    }
+}
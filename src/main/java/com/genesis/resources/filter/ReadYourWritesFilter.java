@@ -0,0 +1,62 @@
+package com.genesis.resources.filter;
+
+import com.genesis.resources.repository.ReplicaRouter;
+import com.google.common.hash.Hashing;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binds the calling client to the request thread, so ReplicaRouter keeps only that client's reads on the
+ * primary after it wrote. Clients are told apart by API key header, or by remote address when they send
+ * none; a wrong guess only costs primary reads, so the key is not validated here.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter
+{
+    private final ReplicaRouter router;
+
+    private final String apiKeyHeader;
+
+    public ReadYourWritesFilter(ReplicaRouter router,
+                                @Value("${genesis.ratelimit.api-key-header:X-API-Key}") String apiKeyHeader)
+    {
+        this.router = router;
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        return !router.tracksWrites() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException
+    {
+        try (ReplicaRouter.Binding ignored = ReplicaRouter.bind(clientOf(request)))
+        {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private String clientOf(HttpServletRequest request)
+    {
+        String apiKey = request.getHeader(apiKeyHeader);
+
+        if (apiKey == null || apiKey.isBlank())
+        {
+            return "ip:" + request.getRemoteAddr();
+        }
+
+        return "key:" + Hashing.sha256().hashString(apiKey, StandardCharsets.UTF_8).toString().substring(0, 16);
+    }
+}
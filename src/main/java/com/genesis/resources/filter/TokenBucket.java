@@ -0,0 +1,49 @@
+package com.genesis.resources.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp (the generic cell rate algorithm): the time at which the bucket
+ * would be full again. Taking tokens pushes that time forward, and is refused when it would land more than
+ * a full bucket ahead of now. One CAS per request, no lock.
+ */
+final class TokenBucket
+{
+    private final long nanosPerToken;
+
+    private final long capacityNanos;
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(double tokensPerSecond, long capacity, long now)
+    {
+        this.nanosPerToken = Math.max(1, Math.round(1_000_000_000L / tokensPerSecond));
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * @return 0 when the tokens were taken, otherwise the nanoseconds until they will be available
+     */
+    long tryTake(int tokens, long now)
+    {
+        long cost = nanosPerToken * tokens;
+
+        while (true)
+        {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long ahead = next - now;
+
+            if (ahead > capacityNanos)
+            {
+                return ahead - capacityNanos;
+            }
+
+            if (fullAt.compareAndSet(current, next))
+            {
+                return 0;
+            }
+        }
+    }
+}
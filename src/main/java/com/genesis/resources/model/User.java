@@ -1,20 +1,24 @@
 package com.genesis.resources.model;
 
+import java.util.UUID;
+
 public class User
 {
     private long id;
     private String name;
     private String surname;
     private String personID;
-    private String uuid;
+    private UUID uuid;
+    private long version;
 
-    public User(long id, String name, String surname, String personID, String uuid)
+    public User(long id, String name, String surname, String personID, UUID uuid, long version)
     {
         this.id = id;
         this.name = name;
         this.surname = surname;
         this.personID = personID;
         this.uuid = uuid;
+        this.version = version;
     }
 
     public long getId()
@@ -57,13 +61,23 @@ public class User
         this.personID = personID;
     }
 
-    public String getUuid()
+    public UUID getUuid()
     {
         return uuid;
     }
 
-    public void setUuid(String uuid)
+    public void setUuid(UUID uuid)
     {
         this.uuid = uuid;
     }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(long version)
+    {
+        this.version = version;
+    }
 }
\ No newline at end of file
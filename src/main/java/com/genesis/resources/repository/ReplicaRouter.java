@@ -0,0 +1,330 @@
+package com.genesis.resources.repository;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Routes the read-only UserRepository queries to healthy read replicas, round robin, and falls back to the
+ * primary when none is healthy or the calling client wrote within the read-your-writes window. The client is
+ * bound to the request thread by ReadYourWritesFilter, and rebound on the threads that work for the same
+ * request (shard scatter, streamed responses). Writes never go through here. Deliberately not a
+ * DataSource bean, so Boot keeps auto-configuring the primary.
+ */
+@Component
+public class ReplicaRouter implements MeterBinder
+{
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private static final long MAX_WRITERS = 100_000;
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final long readYourWritesNanos;
+
+    private final JdbcTemplate reads;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final AtomicLong failovers = new AtomicLong();
+
+    private final ScheduledExecutorService healthChecker;
+
+    // client -> System.nanoTime() of its last write, kept for the read-your-writes window
+    private final Cache<String, Long> lastWrites;
+
+    @Autowired
+    public ReplicaRouter(DataSource primary,
+                         @Value("${genesis.datasource.replica.urls:}") List<String> urls,
+                         @Value("${genesis.datasource.replica.username:${spring.datasource.username:}}") String username,
+                         @Value("${genesis.datasource.replica.password:${spring.datasource.password:}}") String password,
+                         @Value("${genesis.datasource.replica.maximum-pool-size:20}") int maximumPoolSize,
+                         @Value("${genesis.datasource.replica.read-your-writes-ms:0}") long readYourWritesMs,
+                         @Value("${genesis.datasource.replica.health-check-interval-ms:5000}") long healthCheckIntervalMs)
+    {
+        this(primary, pools(urls, username, password, maximumPoolSize), readYourWritesMs, healthCheckIntervalMs);
+    }
+
+    public ReplicaRouter(DataSource primary, List<DataSource> replicas, long readYourWritesMs, long healthCheckIntervalMs)
+    {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size()).mapToObj(i -> new Replica(i, replicas.get(i))).toList();
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMs);
+        this.lastWrites = CacheBuilder.newBuilder()
+                .maximumSize(MAX_WRITERS)
+                .expireAfterWrite(Duration.ofNanos(Math.max(readYourWritesNanos, 1)))
+                .build();
+        this.reads = new JdbcTemplate(this.replicas.isEmpty() ? primary : new ReadRoutingDataSource());
+
+        if (!this.replicas.isEmpty() && healthCheckIntervalMs > 0)
+        {
+            logger.info("Routing reads to {} replica(s), health check every {}ms, read-your-writes window {}ms",
+                    this.replicas.size(), healthCheckIntervalMs, readYourWritesMs);
+
+            healthChecker = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread thread = new Thread(r, "replica-health-check");
+                thread.setDaemon(true);
+
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMs, healthCheckIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else
+        {
+            healthChecker = null;
+        }
+    }
+
+    /**
+     * Template for statements that may be served by a replica.
+     */
+    public JdbcTemplate reads()
+    {
+        return reads;
+    }
+
+    /**
+     * Whether reads after a write are kept on the primary at all, i.e. a client needs to be bound.
+     */
+    public boolean tracksWrites()
+    {
+        return readYourWritesNanos > 0 && !replicas.isEmpty();
+    }
+
+    /**
+     * The client bound to the current thread, or null; hand it to bind() on another thread that works for
+     * the same request.
+     */
+    public static String boundClient()
+    {
+        return CLIENT.get();
+    }
+
+    /**
+     * Binds the client on whose behalf the current thread reads and writes, until the binding is closed.
+     */
+    public static Binding bind(String client)
+    {
+        String previous = CLIENT.get();
+        CLIENT.set(client);
+
+        return () ->
+        {
+            if (previous == null)
+            {
+                CLIENT.remove();
+            } else
+            {
+                CLIENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Records a write on the primary by the bound client; that client's reads stay on the primary for the
+     * read-your-writes window. Other clients keep reading from the replicas.
+     */
+    public void markWrite()
+    {
+        String client = CLIENT.get();
+
+        if (client != null && tracksWrites())
+        {
+            lastWrites.put(client, System.nanoTime());
+        }
+    }
+
+    public int healthyReplicas()
+    {
+        return (int) replicas.stream().filter(r -> r.healthy).count();
+    }
+
+    void checkHealth()
+    {
+        for (Replica replica : replicas)
+        {
+            boolean healthy;
+
+            try (Connection con = replica.dataSource.getConnection())
+            {
+                healthy = con.isValid(1);
+            } catch (SQLException e)
+            {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy)
+            {
+                logger.warn("Replica {} is now {}", replica.index, healthy ? "healthy" : "unhealthy");
+                replica.healthy = healthy;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        if (healthChecker != null)
+        {
+            healthChecker.shutdownNow();
+        }
+
+        for (Replica replica : replicas)
+        {
+            if (replica.dataSource instanceof HikariDataSource pool)
+            {
+                pool.close();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("genesis.datasource.replicas.healthy", this, ReplicaRouter::healthyReplicas)
+                .description("Read replicas currently passing health checks")
+                .register(registry);
+        FunctionCounter.builder("genesis.datasource.replica.failovers", failovers, AtomicLong::get)
+                .description("Reads that fell back after a replica failed to hand out a connection")
+                .register(registry);
+    }
+
+    private Connection readConnection() throws SQLException
+    {
+        if (wroteRecently())
+        {
+            return primary.getConnection();
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+
+        for (int i = 0; i < replicas.size(); i++)
+        {
+            Replica replica = replicas.get((start + i) % replicas.size());
+
+            if (!replica.healthy)
+            {
+                continue;
+            }
+
+            try
+            {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e)
+            {
+                // the health check brings it back once it answers again
+                logger.warn("Replica {} failed, failing over: {}", replica.index, e.getMessage());
+                replica.healthy = false;
+                failovers.incrementAndGet();
+            }
+        }
+
+        return primary.getConnection();
+    }
+
+    private boolean wroteRecently()
+    {
+        String client = CLIENT.get();
+        Long lastWrite = client == null ? null : lastWrites.getIfPresent(client);
+
+        return lastWrite != null && System.nanoTime() - lastWrite < readYourWritesNanos;
+    }
+
+    private static List<DataSource> pools(List<String> urls, String username, String password, int maximumPoolSize)
+    {
+        List<DataSource> pools = new ArrayList<>();
+
+        for (String url : urls)
+        {
+            if (url.isBlank())
+            {
+                continue;
+            }
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + pools.size());
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(maximumPoolSize);
+            pool.setReadOnly(true);
+            // fail fast so a dead replica is skipped instead of stalling the read
+            pool.setInitializationFailTimeout(-1);
+            pool.setConnectionTimeout(1000);
+
+            pools.add(pool);
+        }
+
+        return pools;
+    }
+
+    /**
+     * Ends a client binding; closing does not throw.
+     */
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable
+    {
+        @Override
+        void close();
+    }
+
+    private final class ReadRoutingDataSource extends AbstractDataSource
+    {
+        @Override
+        public Connection getConnection() throws SQLException
+        {
+            return readConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException
+        {
+            return readConnection();
+        }
+    }
+
+    private static final class Replica
+    {
+        private final int index;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(int index, DataSource dataSource)
+        {
+            this.index = index;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.model.User;
+import com.genesis.resources.utils.Uuids;
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Set;
+
+// Feeds a chunk of users to SQLServerBulkCopy; RowNo is the index in the chunk and maps MERGE output back
+class UserBulkData implements ISQLServerBulkData
+{
+    private static final String[] NAMES = {"RowNo", "ID", "Name", "Surname", "PersonID", "Uuid"};
+
+    private static final int[] TYPES = {Types.INTEGER, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BINARY};
+
+    private static final int[] PRECISIONS = {10, 19, 255, 255, 12, 16};
+
+    private final transient List<User> users;
+
+    // staged IDs; only the rows MERGE actually inserts get theirs set on the User
+    private final long[] ids;
+
+    private int index = -1;
+
+    UserBulkData(List<User> users, long[] ids)
+    {
+        this.users = users;
+        this.ids = ids;
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals()
+    {
+        return Set.of(1, 2, 3, 4, 5, 6);
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        return NAMES[column - 1];
+    }
+
+    @Override
+    public int getColumnType(int column)
+    {
+        return TYPES[column - 1];
+    }
+
+    @Override
+    public int getPrecision(int column)
+    {
+        return PRECISIONS[column - 1];
+    }
+
+    @Override
+    public int getScale(int column)
+    {
+        return 0;
+    }
+
+    @Override
+    public Object[] getRowData()
+    {
+        User u = users.get(index);
+
+        return new Object[]{index, ids[index], u.getName(), u.getSurname(), u.getPersonID(), Uuids.toBytes(u.getUuid())};
+    }
+
+    @Override
+    public boolean next()
+    {
+        return ++index < users.size();
+    }
+}
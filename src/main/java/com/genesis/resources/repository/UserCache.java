@@ -0,0 +1,165 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.model.User;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongFunction;
+
+/**
+ * Users by ID. Entries are immutable snapshots and every read hands out its own User, so callers may modify
+ * what they get. A load only fills the cache if no invalidate of that ID happened while it ran; otherwise
+ * a query that read the row before a write could put the old row back for the whole TTL.
+ */
+@Component
+public class UserCache implements MeterBinder
+{
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    // invalidations are counted per stripe of IDs; a collision only costs a skipped put
+    private static final int STRIPE_BITS = 12;
+
+    private final Cache<Long, UserSnapshot> cache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(1 << STRIPE_BITS);
+
+    public UserCache(@Value("${genesis.users.cache.enabled:true}") boolean enabled,
+                     @Value("${genesis.users.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${genesis.users.cache.ttl-seconds:300}") long ttlSeconds)
+    {
+        if (enabled)
+        {
+            logger.info("User cache enabled: maximumSize={}, ttl={}s", maximumSize, ttlSeconds);
+
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                    .recordStats()
+                    .build();
+        } else
+        {
+            logger.info("User cache disabled");
+
+            this.cache = null;
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return cache != null;
+    }
+
+    public Optional<User> get(long id, LongFunction<Optional<User>> loader)
+    {
+        if (cache == null)
+        {
+            return loader.apply(id);
+        }
+
+        UserSnapshot cached = cache.getIfPresent(id);
+
+        if (cached != null)
+        {
+            logger.debug("User cache hit id={}", id);
+
+            return Optional.of(cached.toUser());
+        }
+
+        long generation = generation(id);
+        Optional<User> loaded = loader.apply(id);
+        loaded.ifPresent(u -> put(u, generation));
+
+        return loaded;
+    }
+
+    public Optional<User> getIfPresent(long id)
+    {
+        if (cache == null)
+        {
+            return Optional.empty();
+        }
+
+        UserSnapshot cached = cache.getIfPresent(id);
+
+        return cached == null ? Optional.empty() : Optional.of(cached.toUser());
+    }
+
+    /**
+     * For rows this instance just inserted; nothing can have invalidated them yet.
+     */
+    public void put(User user)
+    {
+        if (cache != null)
+        {
+            cache.put(user.getId(), UserSnapshot.of(user));
+        }
+    }
+
+    /**
+     * Taken before querying a row that is then passed to put(User, long).
+     */
+    public long generation(long id)
+    {
+        return generations.get(stripe(id));
+    }
+
+    /**
+     * Caches a loaded row unless its ID was invalidated since generation was taken. The entry goes in first
+     * and is taken out again if the generation moved, so an invalidate racing with the put cannot be missed.
+     */
+    public void put(User user, long generation)
+    {
+        if (cache == null)
+        {
+            return;
+        }
+
+        cache.put(user.getId(), UserSnapshot.of(user));
+
+        if (generations.get(stripe(user.getId())) != generation)
+        {
+            logger.debug("User id={} written while it was loaded, not caching it", user.getId());
+            cache.invalidate(user.getId());
+        }
+    }
+
+    public void invalidate(long id)
+    {
+        if (cache != null)
+        {
+            generations.incrementAndGet(stripe(id));
+            cache.invalidate(id);
+        }
+    }
+
+    public CacheStats stats()
+    {
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        if (cache != null)
+        {
+            GuavaCacheMetrics.monitor(registry, cache, "users");
+        }
+    }
+
+    private static int stripe(long id)
+    {
+        // snowflake IDs differ mostly in their low sequence bits, so spread them before masking
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - STRIPE_BITS));
+    }
+}
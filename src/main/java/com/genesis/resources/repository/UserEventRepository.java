@@ -0,0 +1,144 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.dto.UserChangeEvent;
+import com.genesis.resources.dto.UserChangeType;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The UserEvents change log. It lives on shard 0 only, so the EventID identity is one global order across
+ * shards. With several instances appending, EventIDs do not commit in order: a reader could pass an ID whose
+ * batch commits later and skip it for good. So appends run under a transaction timeout shorter than the
+ * commit-lag bound, and readers are only served events written longer than that bound ago (by the database
+ * clock), stopping at the first younger one; everything below that watermark has committed.
+ */
+@Repository
+public class UserEventRepository
+{
+    private static final Logger logger = LoggerFactory.getLogger(UserEventRepository.class);
+
+    private static final String COLUMNS = "EventID, Type, UserID, Name, Surname, PersonID, Uuid, Version, OccurredAt";
+
+    private final JdbcTemplate log;
+
+    private final TransactionTemplate transactions;
+
+    private final long commitLagMs;
+
+    private final UserMetrics metrics;
+
+    private final int fetchSize;
+
+    public UserEventRepository(UserShards shards,
+                               UserMetrics metrics,
+                               @Value("${genesis.users.fetch-size:1000}") int fetchSize,
+                               @Value("${genesis.users.changes.commit-lag-ms:5000}") long commitLagMs)
+    {
+        // the writer side: a lagging replica would hold back the feed, not speed it up
+        this.log = shards.all().getFirst().writes();
+        this.transactions = new TransactionTemplate(shards.all().getFirst().transactions().getTransactionManager());
+        // an append either commits well within the bound or rolls back
+        this.transactions.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(commitLagMs) / 2));
+        this.commitLagMs = commitLagMs;
+        this.metrics = metrics;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the entries in one transaction, so a failed attempt leaves none behind for the retry to duplicate.
+     */
+    public void appendAll(List<UserChangeEvent> events)
+    {
+        String sql = "INSERT INTO UserEvents (Type, UserID, Name, Surname, PersonID, Uuid, Version, OccurredAt) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        ParameterizedPreparedStatementSetter<UserChangeEvent> setter = (ps, e) ->
+        {
+            ps.setString(1, e.getType().name());
+            ps.setLong(2, e.getId());
+            ps.setString(3, e.getName());
+            ps.setString(4, e.getSurname());
+            ps.setString(5, e.getPersonID());
+            ps.setBytes(6, e.getUuid() == null ? null : Uuids.toBytes(e.getUuid()));
+            ps.setObject(7, e.getVersion(), Types.BIGINT);
+            ps.setObject(8, LocalDateTime.ofInstant(e.getOccurredAt(), ZoneOffset.UTC));
+        };
+
+        metrics.timeSql("insert_events", () -> transactions.execute(status ->
+                log.batchUpdate(sql, events, events.size(), setter)));
+    }
+
+    /**
+     * Streams the entries after the given offset in offset order; at most limit of them, and only those below
+     * the commit watermark, so a later call with the last offset seen misses nothing.
+     */
+    public void forEachSince(long offset, int limit, Consumer<UserChangeEvent> action)
+    {
+        logger.debug("Streaming user events since={}, limit={}, fetchSize={}", offset, limit, fetchSize);
+
+        PreparedStatementCreator psc = con ->
+        {
+            PreparedStatement ps = con.prepareStatement("SELECT TOP (?) " + COLUMNS
+                            + " FROM UserEvents WHERE EventID > ? AND EventID < COALESCE(("
+                            + "SELECT MIN(EventID) FROM UserEvents WHERE EventID > ? "
+                            + "AND WrittenAt >= DATEADD(MILLISECOND, -?, SYSUTCDATETIME())), " + Long.MAX_VALUE + ")"
+                            + " ORDER BY EventID",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setInt(1, limit);
+            ps.setLong(2, offset);
+            ps.setLong(3, offset);
+            ps.setLong(4, commitLagMs);
+            ps.setFetchSize(fetchSize);
+
+            return ps;
+        };
+
+        AtomicLong rows = new AtomicLong();
+        RowCallbackHandler handler = rs ->
+        {
+            rows.incrementAndGet();
+            action.accept(mapRow(rs));
+        };
+
+        metrics.timeSql("select_events", () -> log.query(psc, handler));
+        metrics.recordRows("select_events", rows.get());
+    }
+
+    private static UserChangeEvent mapRow(ResultSet rs) throws SQLException
+    {
+        byte[] uuid = rs.getBytes("Uuid");
+
+        UserChangeEvent event = new UserChangeEvent(
+                UserChangeType.valueOf(rs.getString("Type")),
+                rs.getLong("UserID"),
+                rs.getString("Name"),
+                rs.getString("Surname"),
+                rs.getString("PersonID"),
+                uuid == null ? null : Uuids.fromBytes(uuid),
+                rs.getObject("Version", Long.class),
+                rs.getObject("OccurredAt", LocalDateTime.class).toInstant(ZoneOffset.UTC));
+        event.setOffset(rs.getLong("EventID"));
+
+        return event;
+    }
+}
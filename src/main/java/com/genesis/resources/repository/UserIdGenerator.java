@@ -0,0 +1,108 @@
+package com.genesis.resources.repository;
+
+import java.time.Instant;
+
+/**
+ * Snowflake-style 63-bit IDs: 41 bits of milliseconds since 2025-01-01, 6 bits of shard, 6 bits of worker
+ * and a 10-bit per-millisecond sequence. IDs grow with time across all shards, so keyset paging by ID
+ * still works after a scatter-gather merge, and the owning shard can be read straight off the ID.
+ */
+public final class UserIdGenerator
+{
+    public static final int MAX_SHARDS = 64;
+
+    public static final int MAX_WORKERS = 64;
+
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int SEQUENCE_BITS = 10;
+    private static final int WORKER_BITS = 6;
+    private static final int SHARD_BITS = 6;
+
+    private static final int WORKER_SHIFT = SEQUENCE_BITS;
+    private static final int SHARD_SHIFT = SEQUENCE_BITS + WORKER_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_BITS + SHARD_BITS;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // the timestamp starts at bit 22, so every ID generated from EPOCH + 2^18 ms (00:04:22 on 2025-01-01) on
+    // is at least 2^40; pre-sharding IDENTITY values stayed far below that, so the two ranges never meet
+    private static final long LEGACY_ID_LIMIT = 1L << 40;
+
+    private static final long MIN_MILLIS = LEGACY_ID_LIMIT >>> TIMESTAMP_SHIFT;
+
+    private final int worker;
+
+    private long lastMillis = -1;
+
+    private long sequence;
+
+    public UserIdGenerator(int worker)
+    {
+        if (worker < 0 || worker >= MAX_WORKERS)
+        {
+            throw new IllegalArgumentException("Worker id must be in [0, " + MAX_WORKERS + "): " + worker);
+        }
+
+        this.worker = worker;
+    }
+
+    /**
+     * Legacy IDENTITY values decode to shard 0, where the pre-sharding rows live.
+     */
+    public static int shardOf(long id)
+    {
+        if (id < LEGACY_ID_LIMIT)
+        {
+            return 0;
+        }
+
+        return (int) (id >>> SHARD_SHIFT) & (MAX_SHARDS - 1);
+    }
+
+    public synchronized long next(int shard)
+    {
+        long now = System.currentTimeMillis();
+
+        // never step back if the clock does; borrow from the last millisecond instead
+        if (now <= lastMillis)
+        {
+            now = lastMillis;
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+
+            if (sequence == 0)
+            {
+                now = waitForNextMillis(lastMillis);
+            }
+        } else
+        {
+            sequence = 0;
+        }
+
+        lastMillis = now;
+
+        if (now - EPOCH < MIN_MILLIS)
+        {
+            throw new IllegalStateException("Clock is before " + Instant.ofEpochMilli(EPOCH + MIN_MILLIS)
+                    + ", the ID would fall into the legacy IDENTITY range");
+        }
+
+        return ((now - EPOCH) << TIMESTAMP_SHIFT)
+                | ((long) shard << SHARD_SHIFT)
+                | ((long) worker << WORKER_SHIFT)
+                | sequence;
+    }
+
+    private static long waitForNextMillis(long last)
+    {
+        long now = System.currentTimeMillis();
+
+        while (now <= last)
+        {
+            Thread.onSpinWait();
+            now = System.currentTimeMillis();
+        }
+
+        return now;
+    }
+}
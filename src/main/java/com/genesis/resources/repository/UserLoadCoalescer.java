@@ -0,0 +1,131 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.model.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Single-flight for lookups by ID: while a query for an ID is running, further lookups of the same ID wait
+ * for its result instead of issuing their own. Sits behind UserCache, so it catches the misses that arrive
+ * together (a cold or just-invalidated hot user, or lookups of users that do not exist, which are never
+ * cached). The result is shared as an immutable snapshot and every joiner gets its own User, as with UserCache.
+ * Coalescing ratio = joined / (executed + joined) of genesis.user.coalesce.loads.
+ */
+@Component
+public class UserLoadCoalescer implements MeterBinder
+{
+    private static final Logger logger = LoggerFactory.getLogger(UserLoadCoalescer.class);
+
+    private final Map<Long, CompletableFuture<Optional<UserSnapshot>>> inFlight = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+
+    private final AtomicLong executed = new AtomicLong();
+
+    private final AtomicLong joined = new AtomicLong();
+
+    public UserLoadCoalescer(@Value("${genesis.users.coalesce.enabled:true}") boolean enabled)
+    {
+        logger.info("User lookup coalescing {}", enabled ? "enabled" : "disabled");
+
+        this.enabled = enabled;
+    }
+
+    public Optional<User> load(long id, LongFunction<Optional<User>> loader)
+    {
+        if (!enabled)
+        {
+            return loader.apply(id);
+        }
+
+        CompletableFuture<Optional<UserSnapshot>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<UserSnapshot>> running = inFlight.putIfAbsent(id, flight);
+
+        if (running != null)
+        {
+            logger.debug("Joining in-flight lookup id={}", id);
+            joined.incrementAndGet();
+
+            // each joiner gets its own User, so none of them sees what another one modifies
+            return await(running).map(UserSnapshot::toUser);
+        }
+
+        executed.incrementAndGet();
+
+        try
+        {
+            Optional<User> loaded = loader.apply(id);
+            flight.complete(loaded.map(UserSnapshot::of));
+
+            return loaded;
+        } catch (Throwable e)
+        {
+            flight.completeExceptionally(e);
+
+            throw e;
+        } finally
+        {
+            inFlight.remove(id, flight);
+        }
+    }
+
+    /**
+     * Lookups arriving after a write must not join a query that may have read the row before it.
+     */
+    public void forget(long id)
+    {
+        inFlight.remove(id);
+    }
+
+    public long inFlight()
+    {
+        return inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        FunctionCounter.builder("genesis.user.coalesce.loads", executed, AtomicLong::get)
+                .description("Lookups by ID, by whether they ran a query or shared one already running")
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("genesis.user.coalesce.loads", joined, AtomicLong::get)
+                .description("Lookups by ID, by whether they ran a query or shared one already running")
+                .tag("result", "joined")
+                .register(registry);
+        Gauge.builder("genesis.user.coalesce.in-flight", this, UserLoadCoalescer::inFlight)
+                .description("Lookups by ID currently running against the database")
+                .register(registry);
+    }
+
+    private static Optional<UserSnapshot> await(CompletableFuture<Optional<UserSnapshot>> flight)
+    {
+        try
+        {
+            return flight.join();
+        } catch (CompletionException e)
+        {
+            // the leader's exception, unwrapped so every caller sees the same DataAccessException
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+}
@@ -1,89 +1,852 @@
 package com.genesis.resources.repository;
 
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.dto.UserSearchCursor;
+import com.genesis.resources.exception.PersonIDAlreadyUsedException;
 import com.genesis.resources.model.User;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
+import com.genesis.resources.repository.UserShards.Shard;
+import com.google.common.base.Strings;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.Charset;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Repository
 public class UserRepository
 {
     private static final Logger logger = LoggerFactory.getLogger(UserRepository.class);
 
-    private final JdbcTemplate jdbcTemplate;
+    // SQL Server allows at most 2100 parameters per statement
+    private static final int MAX_IN_PARAMS = 2000;
 
-    public UserRepository(JdbcTemplate jdbcTemplate)
+    private static final int BATCH_SIZE = 1000;
+
+    static final String PERSON_ID_CONSTRAINT = "UQ_Users_PersonId";
+
+    private static final String CREATE_IMPORT_STAGING = """
+            CREATE TABLE #UsersImport
+            (
+                RowNo    INT          NOT NULL PRIMARY KEY,
+                ID       BIGINT       NOT NULL,
+                Name     VARCHAR(255) NOT NULL,
+                Surname  VARCHAR(255) NOT NULL,
+                PersonID VARCHAR(12)  NOT NULL,
+                Uuid     BINARY(16)   NOT NULL
+            )""";
+
+    // MERGE rather than INSERT ... SELECT because only MERGE can OUTPUT source columns (RowNo);
+    // HOLDLOCK keeps concurrent creates from slipping a PersonID in between the match and the insert
+    private static final String MERGE_IMPORT_STAGING = """
+            MERGE Users WITH (HOLDLOCK) AS t
+            USING (SELECT RowNo, ID, Name, Surname, PersonID, Uuid,
+                          ROW_NUMBER() OVER (PARTITION BY PersonID ORDER BY RowNo) AS Occurrence
+                   FROM #UsersImport) AS s
+            ON t.PersonID = s.PersonID
+            WHEN NOT MATCHED BY TARGET AND s.Occurrence = 1 THEN
+                INSERT (ID, Name, Surname, PersonID, Uuid) VALUES (s.ID, s.Name, s.Surname, s.PersonID, s.Uuid)
+            OUTPUT s.RowNo, INSERTED.ID, CAST(INSERTED.Version AS BIGINT) AS Version;""";
+
+    private static final String COLUMNS = "ID, Name, Surname, PersonID, Uuid, CAST(Version AS BIGINT) AS Version";
+
+    // per-shard page queries run in parallel; each only waits on its own database
+    private static final ExecutorService SCATTER = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final Comparator<User> BY_ID = Comparator.comparingLong(User::getId);
+
+    // code page of the Latin1_General collation of the VARCHAR name columns, i.e. the bytes SQL Server stores
+    private static final Charset NAME_CHARSET = Charset.forName("windows-1252");
+
+    // the shards' pages are merged in Java, so name searches order by the stored bytes, which SQL Server and
+    // Java compare identically; a linguistic collation differs between the two on accents and punctuation,
+    // and a row could then fall behind the next page's cursor and be skipped
+    private static final Comparator<String> BY_BYTES = Comparator.comparing(UserRepository::sortKey,
+            Arrays::compareUnsigned);
+
+    private static final Comparator<User> BY_NAME = Comparator.comparing(User::getName, BY_BYTES)
+            .thenComparing(User::getSurname, BY_BYTES)
+            .thenComparingLong(User::getId);
+
+    private static final Comparator<User> BY_SURNAME = Comparator.comparing(User::getSurname, BY_BYTES)
+            .thenComparing(User::getName, BY_BYTES)
+            .thenComparingLong(User::getId);
+
+    private final UserShards shards;
+
+    private final UserCache cache;
+
+    private final UserLoadCoalescer coalescer;
+
+    private final UserMetrics metrics;
+
+    private final int fetchSize;
+
+    public UserRepository(UserShards shards,
+                          UserCache cache,
+                          UserLoadCoalescer coalescer,
+                          UserMetrics metrics,
+                          @Value("${genesis.users.fetch-size:1000}") int fetchSize)
     {
-        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.metrics = metrics;
+        this.fetchSize = fetchSize;
     }
 
-    @Transactional
-    public long save(String name, String surname, String personID, String uuid)
+    public User save(String name, String surname, String personID, UUID uuid)
     {
         logger.debug("Inserting user into DB: name='{}', surname='{}', personID={}, uuid={}",
                 name, surname, personID, uuid);
 
-        String sql = "INSERT INTO Users (Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) "
+                + "OUTPUT CAST(INSERTED.Version AS BIGINT) AS Version VALUES (?, ?, ?, ?, ?)";
+
+        Shard shard = shards.forPersonID(personID);
+        long id = shards.nextId(shard);
+        User user;
+
+        try
+        {
+            user = metrics.timeSql("insert", () -> shard.writes().queryForObject(sql,
+                    (rs, rowNum) -> new User(id, name, surname, personID, uuid, rs.getLong("Version")),
+                    id, name, surname, personID, Uuids.toBytes(uuid)));
+        } catch (DuplicateKeyException e)
+        {
+            if (isPersonIDViolation(e))
+            {
+                logger.debug("Insert rejected by {} personID={}", PERSON_ID_CONSTRAINT, personID);
+                throw new PersonIDAlreadyUsedException(personID);
+            }
+
+            throw e;
+        }
+
+        if (user == null)
+        {
+            throw new IllegalStateException("Failed to retrieve version after insert");
+        }
+
+        logger.debug("User inserted, ID={}, shard={}", user.getId(), shard.index());
+
+        shards.markWrite(shard);
+
+        cache.put(user);
+
+        return user;
+    }
+
+    /**
+     * Inserts each shard's share of the batch in one transaction on that shard. Shards commit independently:
+     * a shard whose share hits an existing key rolls back alone and the other shards go on. Returns the users
+     * of the rolled back shares, reset to ID 0; every other user is inserted.
+     */
+    public List<User> saveAll(List<User> users)
+    {
+        logger.debug("Batch inserting {} users into DB", users.size());
+
+        for (User u : users)
+        {
+            u.setId(shards.nextId(shards.forPersonID(u.getPersonID())));
+        }
+
+        List<User> rejected = new ArrayList<>();
+
+        for (Map.Entry<Shard, List<User>> entry : byShard(users, u -> shards.forPersonID(u.getPersonID())).entrySet())
+        {
+            Shard shard = entry.getKey();
+            List<User> batch = entry.getValue();
 
-        jdbcTemplate.update(sql, name, surname, personID, uuid);
+            try
+            {
+                shard.transactions().executeWithoutResult(status -> insertBatch(shard, batch));
+            } catch (DuplicateKeyException e)
+            {
+                logger.debug("Batch insert of {} users rolled back on shard {}: {}", batch.size(), shard.index(),
+                        e.getMostSpecificCause().getMessage());
+                batch.forEach(u -> u.setId(0L));
+                rejected.addAll(batch);
+                continue;
+            }
 
-        Long id = jdbcTemplate.queryForObject("SELECT CAST(SCOPE_IDENTITY() as bigint)", Long.class);
+            shards.markWrite(shard);
+            batch.forEach(cache::put);
+        }
+
+        logger.debug("Batch inserted {} of {} users", users.size() - rejected.size(), users.size());
+
+        return rejected;
+    }
 
-        if (id == null)
+    /**
+     * Bulk-copies the chunk into a session temp table and merges it into Users in one statement. Rows whose
+     * PersonID already exists, or repeats an earlier row of the chunk, are skipped. Inserted users get their
+     * ID and version set; the returned count says how many there were.
+     */
+    public int importChunk(List<User> users)
+    {
+        logger.debug("Importing chunk of {} users", users.size());
+
+        int inserted = 0;
+
+        for (Map.Entry<Shard, List<User>> entry : byShard(users, u -> shards.forPersonID(u.getPersonID())).entrySet())
         {
-            throw new IllegalStateException("Failed to retrieve generated ID after insert");
+            inserted += importChunk(entry.getKey(), entry.getValue());
         }
 
-        logger.debug("User inserted, generated ID={}", id);
+        metrics.recordRows("import_chunk", inserted);
+        logger.debug("Imported {} of {} users", inserted, users.size());
 
-        return id;
+        return inserted;
     }
 
     public Optional<User> findById(long id)
     {
-        logger.debug("Querying user by ID={}", id);
+        return cache.get(id, key -> coalescer.load(key, this::queryById));
+    }
+
+    /**
+     * The users among the given IDs, keyed by ID; IDs that do not exist are simply absent. Cached users are
+     * taken from the cache, the rest is read from the primary (it fills the cache) with one IN query per
+     * shard and chunk.
+     */
+    public Map<Long, User> findByIds(Collection<Long> ids)
+    {
+        logger.debug("Querying {} users by ID", ids.size());
+
+        Map<Long, User> found = new HashMap<>();
+        Map<Long, Long> generations = new HashMap<>();
+
+        for (long id : new LinkedHashSet<>(ids))
+        {
+            Optional<User> cached = cache.getIfPresent(id);
+
+            if (cached.isPresent())
+            {
+                found.put(id, cached.get());
+            } else if (shards.forId(id) != null)
+            {
+                generations.put(id, cache.generation(id));
+            }
+        }
+
+        List<Long> misses = List.copyOf(generations.keySet());
+
+        for (Map.Entry<Shard, List<Long>> entry : byShard(misses, shards::forId).entrySet())
+        {
+            Shard shard = entry.getKey();
+
+            for (List<Long> chunk : Lists.partition(entry.getValue(), MAX_IN_PARAMS))
+            {
+                List<User> users = metrics.timeSql("select_by_ids", () -> shard.writes().query(
+                        "SELECT " + COLUMNS + " FROM Users WHERE ID IN (" + placeholders(chunk.size()) + ")",
+                        this::mapRow, chunk.toArray()));
+
+                for (User u : users)
+                {
+                    found.put(u.getId(), u);
+                    cache.put(u, generations.get(u.getId()));
+                }
+            }
+        }
+
+        metrics.recordRows("select_by_ids", found.size());
+        logger.debug("Found {} of {} users", found.size(), ids.size());
+
+        return found;
+    }
+
+    /**
+     * Reads only the requested columns plus ID and Version. Unrequested properties of the returned user are
+     * null; a cached user is returned whole.
+     */
+    public Optional<User> findById(long id, Set<UserField> fields)
+    {
+        Optional<User> cached = cache.getIfPresent(id);
+
+        if (cached.isPresent())
+        {
+            return cached;
+        }
+
+        Shard shard = shards.forId(id);
+
+        if (shard == null)
+        {
+            return Optional.empty();
+        }
 
-        List<User> result = jdbcTemplate.query("SELECT ID, Name, Surname, PersonID, Uuid FROM Users WHERE ID = ?", this::mapRow, id);
+        logger.debug("Querying user by ID={} on shard {}, fields={}", id, shard.index(), fields);
+
+        List<User> result = metrics.timeSql("select_fields_by_id", () -> shard.reads().query(
+                "SELECT " + columns(fields) + " FROM Users WHERE ID = ?", projection(fields), id));
 
         return result.stream().findFirst();
     }
 
-    public List<User> findAll()
+    /**
+     * The UUID says nothing about the owning shard, so every shard is asked; UQ_Users_Uuid makes each a seek.
+     */
+    public Optional<User> findByUuid(UUID uuid)
+    {
+        logger.debug("Querying user UUID={}", uuid);
+
+        byte[] key = Uuids.toBytes(uuid);
+        List<List<User>> found = scatter(shard -> metrics.timeSql("select_by_uuid", () -> shard.reads().query(
+                "SELECT " + COLUMNS + " FROM Users WHERE Uuid = ?", this::mapRow, key)));
+
+        return found.stream().flatMap(List::stream).findFirst();
+    }
+
+    /**
+     * Scatter-gather: the next page of every shard, merged by ID. Snowflake IDs grow with time across
+     * shards, so the merged page is the global next page.
+     */
+    public List<User> findPage(long afterId, int limit)
+    {
+        logger.debug("Querying users page afterId={}, limit={}, shards={}", afterId, limit, shards.size());
+
+        List<List<User>> pages = scatter(shard -> metrics.timeSql("select_page", () -> shard.reads().query(
+                "SELECT " + COLUMNS + " FROM Users WHERE ID > ? ORDER BY ID "
+                        + "OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY", this::mapRow, afterId, limit)));
+
+        List<User> users = merge(pages, limit);
+        metrics.recordRows("select_page", users.size());
+
+        return users;
+    }
+
+    /**
+     * findPage narrowed to the requested columns, as in findById(long, Set). Narrow column lists also let
+     * SQL Server pick a covering index: every index carries ID, IX_Users_Name_Surname also PersonID, Uuid
+     * and Version.
+     */
+    public List<User> findPage(long afterId, int limit, Set<UserField> fields)
+    {
+        logger.debug("Querying users page afterId={}, limit={}, fields={}, shards={}", afterId, limit, fields, shards.size());
+
+        String sql = "SELECT " + columns(fields) + " FROM Users WHERE ID > ? ORDER BY ID OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+        RowMapper<User> mapper = projection(fields);
+
+        List<List<User>> pages = scatter(shard -> metrics.timeSql("select_fields_page", () -> shard.reads().query(
+                sql, mapper, afterId, limit)));
+
+        List<User> users = merge(pages, limit);
+        metrics.recordRows("select_fields_page", users.size());
+
+        return users;
+    }
+
+    /**
+     * Keyset-paged search. Name and surname are prefix matches written as LIKE 'prefix%' so they can seek
+     * the IX_Users_Name_Surname / IX_Users_Surname_Name indexes; personID and uuid are exact matches. Null
+     * or empty criteria are ignored. A personID pins the search to its shard, otherwise every shard is asked.
+     * Name searches are ordered by (Name, Surname, ID), surname searches by (Surname, Name, ID), comparing
+     * names by their stored bytes (so case-sensitively); the others by ID.
+     */
+    public List<User> search(String name, String surname, String personID, UUID uuid, UserSearchCursor after,
+                             int limit)
+    {
+        logger.debug("Searching users name='{}', surname='{}', personID={}, uuid={}, after={}, limit={}",
+                name, surname, personID, uuid, after, limit);
+
+        String first = !Strings.isNullOrEmpty(name) ? "Name" : !Strings.isNullOrEmpty(surname) ? "Surname" : null;
+        String second = "Name".equals(first) ? "Surname" : "Name";
+        // the LIKE prefix still seeks the index; only the matching rows are sorted by their bytes
+        String firstKey = "CAST(" + first + " AS VARBINARY(255))";
+        String secondKey = "CAST(" + second + " AS VARBINARY(255))";
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        if (first == null)
+        {
+            conditions.add("ID > ?");
+            args.add(after.id());
+        } else if (after.hasNames())
+        {
+            // (first, second, ID) > (?, ?, ?)
+            conditions.add(firstKey + " >= ?");
+            conditions.add("(" + firstKey + " > ? OR " + secondKey + " > ? OR (" + secondKey + " = ? AND ID > ?))");
+            byte[] afterFirst = sortKey("Name".equals(first) ? after.name() : after.surname());
+            byte[] afterSecond = sortKey("Name".equals(first) ? after.surname() : after.name());
+            args.addAll(List.of(afterFirst, afterFirst, afterSecond, afterSecond, after.id()));
+        }
+
+        if (!Strings.isNullOrEmpty(name))
+        {
+            conditions.add("Name LIKE ? ESCAPE '\\'");
+            args.add(likePrefix(name));
+        }
+
+        if (!Strings.isNullOrEmpty(surname))
+        {
+            conditions.add("Surname LIKE ? ESCAPE '\\'");
+            args.add(likePrefix(surname));
+        }
+
+        if (!Strings.isNullOrEmpty(personID))
+        {
+            conditions.add("PersonID = ?");
+            args.add(personID);
+        }
+
+        if (uuid != null)
+        {
+            conditions.add("Uuid = ?");
+            args.add(Uuids.toBytes(uuid));
+        }
+
+        String sql = "SELECT " + COLUMNS + " FROM Users"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + (first == null ? " ORDER BY ID" : " ORDER BY " + firstKey + ", " + secondKey + ", ID")
+                + " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+        args.add(limit);
+
+        Function<Shard, List<User>> query = shard -> metrics.timeSql("search", () -> shard.reads().query(
+                sql, this::mapRow, args.toArray()));
+
+        List<List<User>> pages = Strings.isNullOrEmpty(personID)
+                ? scatter(query)
+                : List.of(query.apply(shards.forPersonID(personID)));
+
+        Comparator<User> order = first == null ? BY_ID
+                : "Name".equals(first) ? BY_NAME
+                : BY_SURNAME;
+        List<User> users = merge(pages, limit, order);
+        metrics.recordRows("search", users.size());
+
+        return users;
+    }
+
+    /**
+     * Streams every user, one shard after the other; rows are ordered by ID within a shard only.
+     */
+    public void forEach(Consumer<User> action)
+    {
+        logger.debug("Streaming all users, fetchSize={}, shards={}", fetchSize, shards.size());
+
+        PreparedStatementCreator psc = con ->
+        {
+            PreparedStatement ps = con.prepareStatement("SELECT " + COLUMNS + " FROM Users ORDER BY ID",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+
+            return ps;
+        };
+
+        AtomicLong rows = new AtomicLong();
+        RowCallbackHandler handler = rs ->
+        {
+            rows.incrementAndGet();
+            action.accept(mapRow(rs, 0));
+        };
+
+        for (Shard shard : shards.all())
+        {
+            metrics.timeSql("select_all", () -> shard.reads().query(psc, handler));
+        }
+
+        metrics.recordRows("select_all", rows.get());
+    }
+
+    public void forEachPersonID(Consumer<String> action)
+    {
+        logger.debug("Streaming all personIDs, fetchSize={}", fetchSize);
+
+        PreparedStatementCreator psc = con ->
+        {
+            PreparedStatement ps = con.prepareStatement("SELECT PersonID FROM Users",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+
+            return ps;
+        };
+
+        RowCallbackHandler handler = rs -> action.accept(rs.getString("PersonID"));
+
+        for (Shard shard : shards.all())
+        {
+            metrics.timeSql("select_person_ids", () -> shard.reads().query(psc, handler));
+        }
+    }
+
+    public Optional<Long> findVersionById(long id)
     {
-        logger.debug("Querying all users");
+        Optional<User> cached = cache.getIfPresent(id);
+
+        if (cached.isPresent())
+        {
+            return cached.map(User::getVersion);
+        }
 
-        return jdbcTemplate.query("SELECT ID, Name, Surname, PersonID, Uuid FROM Users", this::mapRow);
+        Shard shard = shards.forId(id);
+
+        if (shard == null)
+        {
+            return Optional.empty();
+        }
+
+        logger.debug("Querying version of user ID={}", id);
+
+        // versions decide 304 and 404-vs-412, so a lagging replica must not answer them
+        List<Long> result = metrics.timeSql("select_version_by_id", () -> shard.writes().queryForList(
+                "SELECT CAST(Version AS BIGINT) FROM Users WHERE ID = ?", Long.class, id));
+
+        return result.stream().findFirst();
     }
 
-    public void update(long id, String name, String surname)
+    /**
+     * Empty when no row matched the ID, or none of expectedVersions (when not null) is its current version.
+     */
+    public Optional<Long> update(long id, String name, String surname, List<Long> expectedVersions)
     {
-        logger.debug("Updating user in DB id={}, name='{}', surname='{}'", id, name, surname);
-        jdbcTemplate.update("UPDATE Users SET Name = ?, Surname = ? WHERE ID = ?", name, surname, id);
+        logger.debug("Updating user in DB id={}, name='{}', surname='{}', expectedVersions={}", id, name, surname, expectedVersions);
+
+        Shard shard = shards.forId(id);
+
+        if (shard == null || (expectedVersions != null && expectedVersions.isEmpty()))
+        {
+            return Optional.empty();
+        }
+
+        // null or empty keeps the stored value, so no read is needed to merge the request
+        String sql = "UPDATE Users SET Name = COALESCE(NULLIF(?, ''), Name), Surname = COALESCE(NULLIF(?, ''), Surname)"
+                + " OUTPUT CAST(INSERTED.Version AS BIGINT) WHERE ID = ?"
+                + (expectedVersions != null ? " AND CAST(Version AS BIGINT) IN (" + placeholders(expectedVersions.size()) + ")" : "");
+        List<Object> args = new ArrayList<>(Arrays.asList(name, surname, id));
+
+        if (expectedVersions != null)
+        {
+            args.addAll(expectedVersions);
+        }
+
+        List<Long> result = metrics.timeSql("update", () -> shard.writes().queryForList(sql, Long.class, args.toArray()));
+        shards.markWrite(shard);
+        // forget first: a lookup that joins a pre-write query must have seen the generation before invalidate
+        coalescer.forget(id);
+        cache.invalidate(id);
+
+        return result.stream().findFirst();
     }
 
-    public void delete(long id)
+    public boolean delete(long id)
     {
         logger.debug("Deleting user from DB id={}", id);
-        jdbcTemplate.update("DELETE FROM Users WHERE ID = ?", id);
+
+        Shard shard = shards.forId(id);
+
+        if (shard == null)
+        {
+            return false;
+        }
+
+        int deleted = metrics.timeSql("delete", () -> shard.writes().update("DELETE FROM Users WHERE ID = ?", id));
+        shards.markWrite(shard);
+        coalescer.forget(id);
+        cache.invalidate(id);
+
+        return deleted > 0;
+    }
+
+    public Set<String> findUsedPersonIDs(Collection<String> personIDs)
+    {
+        logger.debug("Checking existence of {} personIDs in DB", personIDs.size());
+
+        Set<String> used = new HashSet<>();
+
+        // each PersonID can only live on its hash shard, so every shard sees just its own candidates
+        for (Map.Entry<Shard, List<String>> entry : byShard(personIDs, shards::forPersonID).entrySet())
+        {
+            for (List<String> chunk : Lists.partition(entry.getValue(), MAX_IN_PARAMS))
+            {
+                used.addAll(metrics.timeSql("select_used_person_ids", () -> entry.getKey().writes().queryForList(
+                        "SELECT PersonID FROM Users WHERE PersonID IN (" + placeholders(chunk.size()) + ")",
+                        String.class, chunk.toArray())));
+            }
+        }
+
+        logger.debug("{} of {} personIDs already used", used.size(), personIDs.size());
+
+        return used;
+    }
+
+    private void insertBatch(Shard shard, List<User> batch)
+    {
+        String sql = "INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)";
+
+        metrics.timeSql("insert_batch", () -> shard.writes().batchUpdate(sql, batch, BATCH_SIZE, (ps, u) ->
+        {
+            ps.setLong(1, u.getId());
+            ps.setString(2, u.getName());
+            ps.setString(3, u.getSurname());
+            ps.setString(4, u.getPersonID());
+            ps.setBytes(5, Uuids.toBytes(u.getUuid()));
+        }));
+
+        // IDs are generated up front, so only the server-assigned rowversions need reading back
+        Map<Long, User> byId = new HashMap<>();
+        batch.forEach(u -> byId.put(u.getId(), u));
+
+        for (List<User> chunk : Lists.partition(batch, MAX_IN_PARAMS))
+        {
+            metrics.timeSql("select_versions_by_id", () -> shard.writes().query(
+                    "SELECT ID, CAST(Version AS BIGINT) AS Version FROM Users WHERE ID IN ("
+                            + placeholders(chunk.size()) + ")",
+                    rs ->
+                    {
+                        byId.get(rs.getLong("ID")).setVersion(rs.getLong("Version"));
+                    },
+                    chunk.stream().map(User::getId).toArray()));
+        }
+    }
+
+    private int importChunk(Shard shard, List<User> users)
+    {
+        long[] ids = new long[users.size()];
+
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = shards.nextId(shard);
+        }
+
+        int inserted = metrics.timeSql("import_chunk", () -> shard.writes().execute((ConnectionCallback<Integer>) con ->
+        {
+            try (Statement st = con.createStatement())
+            {
+                st.execute(CREATE_IMPORT_STAGING);
+            }
+
+            try
+            {
+                try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(con.unwrap(SQLServerConnection.class)))
+                {
+                    SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+                    options.setBatchSize(users.size());
+                    options.setTableLock(true);
+
+                    bulkCopy.setBulkCopyOptions(options);
+                    bulkCopy.setDestinationTableName("#UsersImport");
+                    bulkCopy.writeToServer(new UserBulkData(users, ids));
+                }
+
+                int count = 0;
+
+                try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(MERGE_IMPORT_STAGING))
+                {
+                    while (rs.next())
+                    {
+                        User u = users.get(rs.getInt("RowNo"));
+                        u.setId(rs.getLong("ID"));
+                        u.setVersion(rs.getLong("Version"));
+                        count++;
+                    }
+                }
+
+                return count;
+            } finally
+            {
+                try (Statement st = con.createStatement())
+                {
+                    st.execute("DROP TABLE #UsersImport");
+                }
+            }
+        }));
+
+        shards.markWrite(shard);
+
+        return inserted;
     }
 
-    public boolean existsByPersonID(String personID)
+    private Optional<User> queryById(long id)
     {
-        logger.debug("Checking existence of personID={} in DB", personID);
+        Shard shard = shards.forId(id);
 
-        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Users WHERE PersonID = ?", Integer.class, personID);
+        if (shard == null)
+        {
+            return Optional.empty();
+        }
+
+        logger.debug("Querying user by ID={} on shard {}", id, shard.index());
+
+        // the row goes into the cache for its whole TTL, so it is read from the primary, never a lagging replica
+        List<User> result = metrics.timeSql("select_by_id", () -> shard.writes().query(
+                "SELECT " + COLUMNS + " FROM Users WHERE ID = ?", this::mapRow, id));
+
+        return result.stream().findFirst();
+    }
+
+    private static boolean isPersonIDViolation(DuplicateKeyException e)
+    {
+        String message = e.getMostSpecificCause().getMessage();
+
+        return message != null && message.contains(PERSON_ID_CONSTRAINT);
+    }
+
+    private <T> List<T> scatter(Function<Shard, T> query)
+    {
+        if (shards.size() == 1)
+        {
+            return List.of(query.apply(shards.all().getFirst()));
+        }
+
+        // the read-your-writes client is bound per thread, so each shard task carries the caller's
+        String client = ReplicaRouter.boundClient();
+        List<CompletableFuture<T>> futures = shards.all().stream()
+                .map(shard -> CompletableFuture.supplyAsync(() ->
+                {
+                    try (ReplicaRouter.Binding ignored = ReplicaRouter.bind(client))
+                    {
+                        return query.apply(shard);
+                    }
+                }, SCATTER))
+                .toList();
+
+        try
+        {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e)
+        {
+            // keep DataAccessException types intact for GlobalExceptionHandler
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private static List<User> merge(List<List<User>> pages, int limit)
+    {
+        return merge(pages, limit, BY_ID);
+    }
+
+    private static List<User> merge(List<List<User>> pages, int limit, Comparator<User> order)
+    {
+        if (pages.size() == 1)
+        {
+            return pages.getFirst();
+        }
+
+        List<User> users = new ArrayList<>(limit);
+        Iterators.limit(Iterators.mergeSorted(pages.stream().map(List::iterator).toList(), order), limit)
+                .forEachRemaining(users::add);
+
+        return users;
+    }
+
+    private static byte[] sortKey(String value)
+    {
+        return value.getBytes(NAME_CHARSET);
+    }
+
+    // LIKE wildcards in user input are matched literally
+    private static String likePrefix(String value)
+    {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_")
+                .replace("[", "\\[") + "%";
+    }
 
-        boolean exists = count != null && count > 0;
-        logger.debug("PersonID={} exists={}", personID, exists);
+    private static <T> Map<Shard, List<T>> byShard(Collection<T> items, Function<T, Shard> shardOf)
+    {
+        Map<Shard, List<T>> groups = new LinkedHashMap<>();
+
+        for (T item : items)
+        {
+            groups.computeIfAbsent(shardOf.apply(item), s -> new ArrayList<>()).add(item);
+        }
 
-        return exists;
+        return groups;
+    }
+
+    private static String placeholders(int count)
+    {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // ID and Version are always read: keyset paging, shard routing and ETags need them
+    private static String columns(Set<UserField> fields)
+    {
+        StringBuilder columns = new StringBuilder("ID");
+
+        if (fields.contains(UserField.NAME))
+        {
+            columns.append(", Name");
+        }
+
+        if (fields.contains(UserField.SURNAME))
+        {
+            columns.append(", Surname");
+        }
+
+        if (fields.contains(UserField.PERSON_ID))
+        {
+            columns.append(", PersonID");
+        }
+
+        if (fields.contains(UserField.UUID))
+        {
+            columns.append(", Uuid");
+        }
+
+        return columns.append(", CAST(Version AS BIGINT) AS Version").toString();
+    }
+
+    private static RowMapper<User> projection(Set<UserField> fields)
+    {
+        boolean name = fields.contains(UserField.NAME);
+        boolean surname = fields.contains(UserField.SURNAME);
+        boolean personID = fields.contains(UserField.PERSON_ID);
+        boolean uuid = fields.contains(UserField.UUID);
+
+        return (rs, rowNum) -> new User(
+                rs.getLong("ID"),
+                name ? rs.getString("Name") : null,
+                surname ? rs.getString("Surname") : null,
+                personID ? rs.getString("PersonID") : null,
+                uuid ? Uuids.fromBytes(rs.getBytes("Uuid")) : null,
+                rs.getLong("Version"));
     }
 
     private User mapRow(ResultSet rs, int rowNum) throws SQLException
@@ -93,6 +856,7 @@ public class UserRepository
                 rs.getString("Name"),
                 rs.getString("Surname"),
                 rs.getString("PersonID"),
-                rs.getString("Uuid"));
+                Uuids.fromBytes(rs.getBytes("Uuid")),
+                rs.getLong("Version"));
     }
 }
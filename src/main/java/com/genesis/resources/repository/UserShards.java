@@ -0,0 +1,172 @@
+package com.genesis.resources.repository;
+
+import com.google.common.hash.Hashing;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The databases holding dbo.Users. Shard 0 is the primary datasource (with its read replicas); further
+ * shards come from genesis.shards.urls. A user lives on the shard chosen by the hash of its PersonID, so
+ * the PersonID unique constraint stays a single-shard check, and its ID encodes that shard.
+ */
+@Component
+public class UserShards
+{
+    private static final Logger logger = LoggerFactory.getLogger(UserShards.class);
+
+    public record Shard(int index, JdbcTemplate writes, JdbcTemplate reads, TransactionTemplate transactions)
+    {
+        public static Shard of(int index, JdbcTemplate writes, JdbcTemplate reads)
+        {
+            return new Shard(index, writes, reads,
+                    new TransactionTemplate(new JdbcTransactionManager(writes.getDataSource())));
+        }
+    }
+
+    private final List<Shard> shards;
+
+    private final UserIdGenerator ids;
+
+    private final ReplicaRouter replicas;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Autowired
+    public UserShards(JdbcTemplate primary,
+                      ReplicaRouter replicas,
+                      @Value("${genesis.shards.urls:}") List<String> urls,
+                      @Value("${genesis.shards.username:${spring.datasource.username:}}") String username,
+                      @Value("${genesis.shards.password:${spring.datasource.password:}}") String password,
+                      @Value("${genesis.shards.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int maximumPoolSize,
+                      @Value("${genesis.shards.instances:1}") int instances,
+                      @Value("${genesis.shards.worker-id:-1}") int workerId)
+    {
+        workerId = workerId(instances, workerId);
+
+        this.replicas = replicas;
+        this.ids = new UserIdGenerator(workerId);
+
+        List<Shard> all = new ArrayList<>();
+        all.add(Shard.of(0, primary, replicas.reads()));
+
+        for (String url : urls)
+        {
+            if (url.isBlank())
+            {
+                continue;
+            }
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + all.size());
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(maximumPoolSize);
+            pools.add(pool);
+
+            JdbcTemplate template = new JdbcTemplate(pool);
+            all.add(Shard.of(all.size(), template, template));
+        }
+
+        this.shards = checked(all);
+
+        logger.info("Users sharded across {} database(s), worker id {}", shards.size(), workerId);
+    }
+
+    public UserShards(List<Shard> shards, ReplicaRouter replicas, int workerId)
+    {
+        this.shards = checked(shards);
+        this.replicas = replicas;
+        this.ids = new UserIdGenerator(workerId);
+    }
+
+    /**
+     * The configured worker id, or 0 when unset on a single instance. Two instances on the same worker id hand
+     * out the same IDs within a millisecond, so several instances must each set their own.
+     */
+    static int workerId(int instances, int workerId)
+    {
+        if (workerId >= 0)
+        {
+            return workerId;
+        }
+
+        if (instances > 1)
+        {
+            throw new IllegalStateException("genesis.shards.worker-id must be set on each of the "
+                    + instances + " instances (genesis.shards.instances)");
+        }
+
+        return 0;
+    }
+
+    public List<Shard> all()
+    {
+        return shards;
+    }
+
+    public int size()
+    {
+        return shards.size();
+    }
+
+    public Shard forId(long id)
+    {
+        int index = UserIdGenerator.shardOf(id);
+
+        return index < shards.size() ? shards.get(index) : null;
+    }
+
+    public Shard forPersonID(String personID)
+    {
+        // a stable hash, not String.hashCode, so placement survives JVM and library changes
+        int hash = Hashing.murmur3_32_fixed().hashString(personID, StandardCharsets.UTF_8).asInt();
+
+        return shards.get(Math.floorMod(hash, shards.size()));
+    }
+
+    public long nextId(Shard shard)
+    {
+        return ids.next(shard.index());
+    }
+
+    /**
+     * Records a write; only shard 0 has replicas, so only its reads need the read-your-writes window.
+     */
+    public void markWrite(Shard shard)
+    {
+        if (shard.index() == 0 && replicas != null)
+        {
+            replicas.markWrite();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private static List<Shard> checked(List<Shard> shards)
+    {
+        if (shards.isEmpty() || shards.size() > UserIdGenerator.MAX_SHARDS)
+        {
+            throw new IllegalArgumentException("Between 1 and " + UserIdGenerator.MAX_SHARDS + " shards required, got "
+                    + shards.size());
+        }
+
+        return List.copyOf(shards);
+    }
+}
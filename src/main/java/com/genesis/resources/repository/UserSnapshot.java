@@ -0,0 +1,21 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.model.User;
+
+import java.util.UUID;
+
+/**
+ * An immutable copy of a User, for results shared between callers; each of them gets its own User back.
+ */
+record UserSnapshot(long id, String name, String surname, String personID, UUID uuid, long version)
+{
+    static UserSnapshot of(User u)
+    {
+        return new UserSnapshot(u.getId(), u.getName(), u.getSurname(), u.getPersonID(), u.getUuid(), u.getVersion());
+    }
+
+    User toUser()
+    {
+        return new User(id, name, surname, personID, uuid, version);
+    }
+}
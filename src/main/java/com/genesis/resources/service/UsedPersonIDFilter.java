@@ -0,0 +1,163 @@
+package com.genesis.resources.service;
+
+import com.genesis.resources.repository.UserRepository;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class UsedPersonIDFilter implements MeterBinder
+{
+    private static final Logger logger = LoggerFactory.getLogger(UsedPersonIDFilter.class);
+
+    private final UserRepository repository;
+
+    private final boolean enabled;
+
+    private final long expectedInsertions;
+
+    private final double fpp;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong deletesSinceBuild = new AtomicLong();
+
+    private final AtomicLong maybePresent = new AtomicLong();
+
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    // null until the first build finishes; every lookup goes to the DB meanwhile
+    private volatile BloomFilter<CharSequence> filter;
+
+    private volatile BloomFilter<CharSequence> building;
+
+    public UsedPersonIDFilter(UserRepository repository,
+                              @Value("${genesis.users.personid-filter.enabled:true}") boolean enabled,
+                              @Value("${genesis.users.personid-filter.expected-insertions:1000000}") long expectedInsertions,
+                              @Value("${genesis.users.personid-filter.fpp:0.01}") double fpp)
+    {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady()
+    {
+        if (enabled)
+        {
+            rebuildAsync();
+        }
+    }
+
+    public boolean mightContain(String personID)
+    {
+        BloomFilter<CharSequence> current = filter;
+
+        return current == null || current.mightContain(personID);
+    }
+
+    public void put(String personID)
+    {
+        BloomFilter<CharSequence> current = filter;
+        BloomFilter<CharSequence> next = building;
+
+        if (current != null)
+        {
+            current.put(personID);
+        }
+
+        if (next != null)
+        {
+            next.put(personID);
+        }
+    }
+
+    public void recordLookup(int maybe, int present)
+    {
+        if (filter != null)
+        {
+            maybePresent.addAndGet(maybe);
+            falsePositives.addAndGet(maybe - present);
+        }
+    }
+
+    public void recordDelete()
+    {
+        // Bloom filters cannot forget; deleted IDs only cost false positives until the next rebuild
+        if (filter != null && deletesSinceBuild.incrementAndGet() > expectedInsertions / 10)
+        {
+            rebuildAsync();
+        }
+    }
+
+    public double falsePositiveRate()
+    {
+        long maybe = maybePresent.get();
+
+        return maybe == 0 ? 0.0 : (double) falsePositives.get() / maybe;
+    }
+
+    public void rebuildAsync()
+    {
+        Thread.ofVirtual().name("personid-filter-rebuild").start(this::rebuild);
+    }
+
+    void rebuild()
+    {
+        if (!rebuilding.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            logger.info("Building used PersonID filter: expectedInsertions={}, fpp={}", expectedInsertions, fpp);
+
+            BloomFilter<CharSequence> next = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+            building = next;
+            repository.forEachPersonID(next::put);
+
+            filter = next;
+            deletesSinceBuild.set(0);
+
+            logger.info("Used PersonID filter built: approximateCount={}, expectedFpp={}",
+                    next.approximateElementCount(), next.expectedFpp());
+        } catch (Exception e)
+        {
+            logger.error("Failed to build used PersonID filter", e);
+        } finally
+        {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("genesis.personid.filter.false.positive.rate", this, UsedPersonIDFilter::falsePositiveRate)
+                .description("Share of filter hits that the database did not confirm")
+                .register(registry);
+        Gauge.builder("genesis.personid.filter.expected.fpp", this, f -> f.filter == null ? 1.0 : f.filter.expectedFpp())
+                .register(registry);
+        FunctionCounter.builder("genesis.personid.filter.maybe.present", maybePresent, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("genesis.personid.filter.false.positives", falsePositives, AtomicLong::get)
+                .register(registry);
+    }
+}
@@ -0,0 +1,251 @@
+package com.genesis.resources.service;
+
+import com.genesis.resources.dto.UserChangeEvent;
+import com.genesis.resources.dto.UserChangeType;
+import com.genesis.resources.model.User;
+import com.genesis.resources.repository.UserEventRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind for the UserEvents change log. Writers only enqueue into a bounded buffer; one flusher thread
+ * drains it in batches into UserEventRepository, so the write path never waits on the log table. A full buffer
+ * makes writers wait up to the offer timeout, then the entry is dropped; a failed flush is retried with the
+ * same batch up to max-attempts times, then the batch is dropped. Dropped entries are logged and counted, so
+ * an outage of the log table costs feed entries instead of stalling every write.
+ */
+@Component
+public class UserChangeLog implements MeterBinder
+{
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeLog.class);
+
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final UserEventRepository repository;
+
+    private final BlockingQueue<UserChangeEvent> buffer;
+
+    private final int batchSize;
+
+    private final long flushIntervalMs;
+
+    private final long offerTimeoutMs;
+
+    private final int maxAttempts;
+
+    private final Thread flusher;
+
+    private final AtomicLong flushed = new AtomicLong();
+
+    private final AtomicLong stalls = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public UserChangeLog(UserEventRepository repository,
+                         @Value("${genesis.users.changes.buffer-size:65536}") int bufferSize,
+                         @Value("${genesis.users.changes.batch-size:1000}") int batchSize,
+                         @Value("${genesis.users.changes.flush-interval-ms:100}") long flushIntervalMs,
+                         @Value("${genesis.users.changes.offer-timeout-ms:1000}") long offerTimeoutMs,
+                         @Value("${genesis.users.changes.max-attempts:5}") int maxAttempts)
+    {
+        this.repository = repository;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.flusher = Thread.ofPlatform().name("user-change-log").daemon().start(this::run);
+    }
+
+    public void created(User u)
+    {
+        append(new UserChangeEvent(UserChangeType.CREATED, u.getId(), u.getName(), u.getSurname(), u.getPersonID(),
+                u.getUuid(), u.getVersion(), Instant.now()));
+    }
+
+    public void updated(long id, String name, String surname, long version)
+    {
+        append(new UserChangeEvent(UserChangeType.UPDATED, id, emptyToNull(name), emptyToNull(surname), null, null,
+                version, Instant.now()));
+    }
+
+    public void deleted(long id)
+    {
+        append(new UserChangeEvent(UserChangeType.DELETED, id, null, null, null, null, null, Instant.now()));
+    }
+
+    /**
+     * Reads the written log only; entries still in the buffer show up once flushed.
+     */
+    public void forEachSince(long offset, int limit, Consumer<UserChangeEvent> action)
+    {
+        repository.forEachSince(offset, limit, action);
+    }
+
+    public int pending()
+    {
+        return buffer.size();
+    }
+
+    public long dropped()
+    {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException
+    {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+
+        if (!buffer.isEmpty())
+        {
+            logger.error("User change log stopped with {} unwritten entries", buffer.size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("genesis.user.changes.pending", this, UserChangeLog::pending)
+                .description("Change log entries buffered but not yet written")
+                .register(registry);
+        FunctionCounter.builder("genesis.user.changes.flushed", flushed, AtomicLong::get)
+                .description("Change log entries written to UserEvents")
+                .register(registry);
+        FunctionCounter.builder("genesis.user.changes.stalls", stalls, AtomicLong::get)
+                .description("Writes that waited for room in a full change log buffer")
+                .register(registry);
+        FunctionCounter.builder("genesis.user.changes.dropped", dropped, AtomicLong::get)
+                .description("Change log entries lost to a full buffer or to repeatedly failed writes")
+                .register(registry);
+    }
+
+    private void append(UserChangeEvent event)
+    {
+        if (buffer.offer(event))
+        {
+            return;
+        }
+
+        stalls.incrementAndGet();
+
+        try
+        {
+            if (buffer.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS))
+            {
+                return;
+            }
+
+            logger.error("User change log buffer still full after {}ms; dropped {} of user id={}", offerTimeoutMs,
+                    event.getType(), event.getId());
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while buffering {} of user id={}; entry lost", event.getType(), event.getId());
+        }
+
+        dropped.incrementAndGet();
+    }
+
+    private void run()
+    {
+        List<UserChangeEvent> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+
+        while (running || !buffer.isEmpty() || !batch.isEmpty())
+        {
+            if (batch.isEmpty() && !awaitFirst(batch))
+            {
+                continue;
+            }
+
+            buffer.drainTo(batch, batchSize - batch.size());
+
+            try
+            {
+                repository.appendAll(batch);
+                flushed.addAndGet(batch.size());
+                batch.clear();
+                attempts = 0;
+            } catch (RuntimeException e)
+            {
+                if (++attempts >= maxAttempts)
+                {
+                    logger.error("Failed to write {} user change log entries {} times, dropping them", batch.size(),
+                            attempts, e);
+                    dropped.addAndGet(batch.size());
+                    batch.clear();
+                    attempts = 0;
+                    continue;
+                }
+
+                logger.error("Failed to write {} user change log entries, retrying", batch.size(), e);
+
+                if (!running || !sleep(RETRY_DELAY_MS))
+                {
+                    logger.error("User change log stopped; {} entries not written", batch.size() + buffer.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean awaitFirst(List<UserChangeEvent> batch)
+    {
+        try
+        {
+            UserChangeEvent first = running ? buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS) : buffer.poll();
+
+            if (first == null)
+            {
+                return false;
+            }
+
+            batch.add(first);
+
+            return true;
+        } catch (InterruptedException e)
+        {
+            // shutdown: the loop drains what is left without waiting
+            return false;
+        }
+    }
+
+    private static boolean sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+
+            return true;
+        } catch (InterruptedException e)
+        {
+            return false;
+        }
+    }
+
+    private static String emptyToNull(String value)
+    {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
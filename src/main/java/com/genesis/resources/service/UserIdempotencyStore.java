@@ -0,0 +1,129 @@
+package com.genesis.resources.service;
+
+import com.genesis.resources.dto.UserDetailResponse;
+import com.genesis.resources.exception.IdempotencyKeyReusedException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Responses of creates sent with an Idempotency-Key, kept per key for a while. A retry with the same key
+ * gets the stored response without running the create again; a retry arriving while the first attempt is
+ * still running waits for it. Only successes are kept, so a failed create can be retried with the same key.
+ * In memory only: keys are not shared between instances or kept across restarts.
+ */
+@Component
+public class UserIdempotencyStore implements MeterBinder
+{
+    private static final Logger logger = LoggerFactory.getLogger(UserIdempotencyStore.class);
+
+    private final Cache<String, Entry> entries;
+
+    private final AtomicLong executed = new AtomicLong();
+
+    private final AtomicLong replayed = new AtomicLong();
+
+    public UserIdempotencyStore(@Value("${genesis.users.idempotency.maximum-size:100000}") long maximumSize,
+                                @Value("${genesis.users.idempotency.ttl-seconds:86400}") long ttlSeconds)
+    {
+        logger.info("Idempotency store: maximumSize={}, ttl={}s", maximumSize, ttlSeconds);
+
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * @param fingerprint identifies the request body; reusing a key for a different body is rejected
+     */
+    public UserDetailResponse execute(String key, String fingerprint, Supplier<UserDetailResponse> action)
+    {
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        Entry stored = entries.asMap().putIfAbsent(key, entry);
+
+        if (stored != null)
+        {
+            if (!stored.fingerprint().equals(fingerprint))
+            {
+                throw new IdempotencyKeyReusedException(key);
+            }
+
+            logger.debug("Replaying response for Idempotency-Key {}", key);
+            replayed.incrementAndGet();
+
+            return await(stored.response());
+        }
+
+        executed.incrementAndGet();
+
+        try
+        {
+            UserDetailResponse response = action.get();
+            entry.response().complete(response);
+
+            return response;
+        } catch (Throwable e)
+        {
+            entries.asMap().remove(key, entry);
+            entry.response().completeExceptionally(e);
+
+            throw e;
+        }
+    }
+
+    public long size()
+    {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        FunctionCounter.builder("genesis.user.idempotency.requests", executed, AtomicLong::get)
+                .description("Creates sent with an Idempotency-Key, by whether they ran or were answered from the store")
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("genesis.user.idempotency.requests", replayed, AtomicLong::get)
+                .description("Creates sent with an Idempotency-Key, by whether they ran or were answered from the store")
+                .tag("result", "replayed")
+                .register(registry);
+        Gauge.builder("genesis.user.idempotency.keys", this, UserIdempotencyStore::size)
+                .description("Idempotency keys currently remembered")
+                .register(registry);
+    }
+
+    private static UserDetailResponse await(CompletableFuture<UserDetailResponse> response)
+    {
+        try
+        {
+            return response.join();
+        } catch (CompletionException e)
+        {
+            // duplicates of a failed attempt fail the same way, e.g. 409 for a PersonID that is taken
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<UserDetailResponse> response)
+    {
+    }
+}
@@ -1,35 +1,84 @@
 package com.genesis.resources.service;
 
+import com.genesis.resources.dto.UserBatchItemResponse;
+import com.genesis.resources.dto.UserBatchItemStatus;
+import com.genesis.resources.dto.UserChangeEvent;
 import com.genesis.resources.dto.UserCreateRequest;
 import com.genesis.resources.dto.UserDetailResponse;
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.dto.UserFieldsResponse;
+import com.genesis.resources.dto.UserImportProgress;
+import com.genesis.resources.dto.UserImportRowError;
+import com.genesis.resources.dto.UserImportStatus;
+import com.genesis.resources.dto.UserLookupItemResponse;
+import com.genesis.resources.dto.UserLookupItemStatus;
+import com.genesis.resources.dto.UserPageResponse;
 import com.genesis.resources.dto.UserResponse;
+import com.genesis.resources.dto.UserSearchCursor;
+import com.genesis.resources.dto.UserSearchRequest;
 import com.genesis.resources.dto.UserUpdateRequest;
 import com.genesis.resources.exception.InvalidPersonIDException;
 import com.genesis.resources.exception.PersonIDAlreadyUsedException;
 import com.genesis.resources.exception.UserNotFoundException;
+import com.genesis.resources.exception.UserVersionMismatchException;
 import com.genesis.resources.model.User;
 import com.genesis.resources.repository.UserRepository;
+import com.genesis.resources.utils.ETags;
 import com.genesis.resources.utils.PersonIDProvider;
+import com.genesis.resources.utils.UserImportReader;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
 import com.google.common.base.Strings;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class UserService
 {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    // Users.Name / Users.Surname are VARCHAR(255); bulk copy fails the whole chunk on longer values
+    private static final int MAX_NAME_LENGTH = 255;
+
     private final UserRepository repository;
 
-    public UserService(UserRepository repository)
+    private final UsedPersonIDFilter usedFilter;
+
+    private final UserMetrics metrics;
+
+    private final UserChangeLog changeLog;
+
+    private final UserIdempotencyStore idempotency;
+
+    public UserService(UserRepository repository, UsedPersonIDFilter usedFilter, UserMetrics metrics,
+                       UserChangeLog changeLog, UserIdempotencyStore idempotency)
     {
         this.repository = repository;
+        this.usedFilter = usedFilter;
+        this.metrics = metrics;
+        this.changeLog = changeLog;
+        this.idempotency = idempotency;
     }
 
+    @Timed(UserMetrics.SERVICE_TIMER)
     public UserDetailResponse create(UserCreateRequest req)
     {
         logger.info("Creating user: name='{}', surname='{}', personID={}",
@@ -38,23 +87,97 @@ public class UserService
         if (!PersonIDProvider.isValid(req.getPersonID()))
         {
             logger.warn("Create rejected – invalid personID={}", req.getPersonID());
+            metrics.countRejection("invalid_person_id");
             throw new InvalidPersonIDException(req.getPersonID());
         }
 
-        if (repository.existsByPersonID(req.getPersonID()))
+        UUID uuid = Uuids.timeOrdered();
+        User u;
+
+        try
+        {
+            u = repository.save(req.getName(), req.getSurname(), req.getPersonID(), uuid);
+        } catch (PersonIDAlreadyUsedException e)
         {
             logger.warn("Create rejected – personID already used={}", req.getPersonID());
-            throw new PersonIDAlreadyUsedException(req.getPersonID());
+            metrics.countRejection("person_id_already_used");
+            throw e;
+        }
+
+        usedFilter.put(req.getPersonID());
+        changeLog.created(u);
+        logger.info("User created: id={}, uuid={}", u.getId(), uuid);
+
+        return toDetail(u);
+    }
+
+    /**
+     * create for clients that retry: a repeated key returns the first attempt's response without touching
+     * the database.
+     */
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserDetailResponse create(UserCreateRequest req, String idempotencyKey)
+    {
+        if (idempotencyKey == null)
+        {
+            return create(req);
+        }
+
+        String fingerprint = String.join("\n", req.getName(), req.getSurname(), req.getPersonID());
+
+        return idempotency.execute(idempotencyKey, fingerprint, () -> create(req));
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public List<UserBatchItemResponse> createBatch(List<UserCreateRequest> reqs)
+    {
+        logger.info("Creating users in batch: size={}", reqs.size());
+
+        UserBatchItemResponse[] results = new UserBatchItemResponse[reqs.size()];
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < reqs.size(); i++)
+        {
+            String personID = reqs.get(i).getPersonID();
+
+            if (!PersonIDProvider.isValid(personID))
+            {
+                results[i] = new UserBatchItemResponse(i, UserBatchItemStatus.INVALID_PERSON_ID, null);
+                metrics.countRejection("invalid_person_id");
+            } else if (!seen.add(personID))
+            {
+                results[i] = new UserBatchItemResponse(i, UserBatchItemStatus.DUPLICATE_IN_BATCH, null);
+            } else
+            {
+                candidates.add(i);
+            }
+        }
+
+        List<Integer> rolledBack = insertBatch(reqs, candidates, results, true);
+
+        if (!rolledBack.isEmpty())
+        {
+            // the filter only knows about inserts made through this instance; the other shards committed, so only
+            // the rolled back users are rechecked against the DB
+            logger.warn("Batch insert hit an existing personID, retrying {} users without the used PersonID filter",
+                    rolledBack.size());
+            rolledBack = insertBatch(reqs, rolledBack, results, false);
         }
 
-        String uuid = UUID.randomUUID().toString();
-        long id = repository.save(req.getName(), req.getSurname(), req.getPersonID(), uuid);
+        if (!rolledBack.isEmpty())
+        {
+            throw new DuplicateKeyException("Batch insert still conflicts after rechecking " + rolledBack.size()
+                    + " personIDs against the DB");
+        }
 
-        logger.info("User created: id={}, uuid={}", id, uuid);
+        long created = Arrays.stream(results).filter(r -> r.getStatus() == UserBatchItemStatus.CREATED).count();
+        logger.info("Batch create finished: requested={}, created={}", reqs.size(), created);
 
-        return new UserDetailResponse(id, req.getName(), req.getSurname(), req.getPersonID(), uuid);
+        return Arrays.asList(results);
     }
 
+    @Timed(UserMetrics.SERVICE_TIMER)
     public UserResponse get(long id)
     {
         logger.debug("Fetching user (basic) id={}", id);
@@ -66,9 +189,25 @@ public class UserService
             return new UserNotFoundException(id);
         });
 
-        return new UserResponse(u.getId(), u.getName(), u.getSurname());
+        return toBasic(u);
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserFieldsResponse getFields(long id, Set<UserField> fields)
+    {
+        logger.debug("Fetching user id={} fields={}", id, fields);
+
+        User u = repository.findById(id, fields).orElseThrow(() ->
+        {
+            logger.warn("User not found id={} (fields)", id);
+
+            return new UserNotFoundException(id);
+        });
+
+        return toFields(u, fields);
     }
 
+    @Timed(UserMetrics.SERVICE_TIMER)
     public UserDetailResponse getDetail(long id)
     {
         logger.debug("Fetching user (detail) id={}", id);
@@ -80,57 +219,470 @@ public class UserService
             return new UserNotFoundException(id);
         });
 
-        return new UserDetailResponse(u.getId(), u.getName(), u.getSurname(), u.getPersonID(), u.getUuid());
+        return toDetail(u);
     }
 
-    public List<UserResponse> getAll()
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserResponse getByUuid(UUID uuid)
     {
-        logger.debug("Fetching all users (basic)");
+        return toBasic(findByUuid(uuid));
+    }
 
-        return repository.findAll().stream()
-                .map(u -> new UserResponse(u.getId(), u.getName(), u.getSurname()))
-                .toList();
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserDetailResponse getDetailByUuid(UUID uuid)
+    {
+        return toDetail(findByUuid(uuid));
     }
 
-    public List<UserDetailResponse> getAllDetail()
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public void streamChanges(long since, int limit, Consumer<UserChangeEvent> action)
     {
-        logger.debug("Fetching all users (detail)");
+        logger.debug("Streaming user changes since={}, limit={}", since, limit);
 
-        return repository.findAll().stream()
-                .map(u -> new UserDetailResponse(u.getId(), u.getName(), u.getSurname(),
-                        u.getPersonID(), u.getUuid()))
-                .toList();
+        changeLog.forEachSince(since, limit, action);
     }
 
-    public void update(long id, UserUpdateRequest req)
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public long getVersion(long id)
     {
-        logger.info("Updating user id={}", id);
+        logger.debug("Fetching user version id={}", id);
 
-        User u = repository.findById(id).orElseThrow(() ->
+        return repository.findVersionById(id).orElseThrow(() ->
         {
-            logger.warn("User not found id={} (update)", id);
+            logger.warn("User not found id={} (version)", id);
 
             return new UserNotFoundException(id);
         });
+    }
 
-        String newName = !Strings.isNullOrEmpty(req.getName()) ? req.getName() : u.getName();
-        String newSurname = !Strings.isNullOrEmpty(req.getSurname()) ? req.getSurname() : u.getSurname();
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public List<UserLookupItemResponse<UserResponse>> lookup(List<Long> ids)
+    {
+        return lookup(ids, UserService::toBasic);
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public List<UserLookupItemResponse<UserDetailResponse>> lookupDetail(List<Long> ids)
+    {
+        return lookup(ids, UserService::toDetail);
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserPageResponse<UserResponse> getAll(long afterId, int limit)
+    {
+        logger.debug("Fetching users page (basic) afterId={}, limit={}", afterId, limit);
+
+        return page(repository.findPage(afterId, limit), limit, UserService::toBasic);
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserPageResponse<UserDetailResponse> getAllDetail(long afterId, int limit)
+    {
+        logger.debug("Fetching users page (detail) afterId={}, limit={}", afterId, limit);
 
-        repository.update(id, newName, newSurname);
-        logger.info("User updated id={}", id);
+        return page(repository.findPage(afterId, limit), limit, UserService::toDetail);
     }
 
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserPageResponse<UserFieldsResponse> getAllFields(long afterId, int limit, Set<UserField> fields)
+    {
+        logger.debug("Fetching users page fields={} afterId={}, limit={}", fields, afterId, limit);
+
+        return page(repository.findPage(afterId, limit, fields), limit, u -> toFields(u, fields));
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserPageResponse<UserResponse> search(UserSearchRequest req, UserSearchCursor after, int limit)
+    {
+        logger.debug("Searching users (basic) after={}, limit={}", after, limit);
+
+        return searchPage(req, after, limit, UserService::toBasic);
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public UserPageResponse<UserDetailResponse> searchDetail(UserSearchRequest req, UserSearchCursor after, int limit)
+    {
+        logger.debug("Searching users (detail) after={}, limit={}", after, limit);
+
+        return searchPage(req, after, limit, UserService::toDetail);
+    }
+
+    public void streamAll(Consumer<UserResponse> action)
+    {
+        logger.debug("Streaming all users (basic)");
+
+        repository.forEach(u -> action.accept(toBasic(u)));
+    }
+
+    public void streamAllDetail(Consumer<UserDetailResponse> action)
+    {
+        logger.debug("Streaming all users (detail)");
+
+        repository.forEach(u -> action.accept(toDetail(u)));
+    }
+
+    public UserImportProgress importUsers(UserImportReader reader, int chunkSize,
+                                          Consumer<UserImportRowError> onError,
+                                          Consumer<UserImportProgress> onProgress) throws IOException
+    {
+        logger.info("Importing users, chunkSize={}", chunkSize);
+
+        List<User> chunk = new ArrayList<>(chunkSize);
+        List<Long> lines = new ArrayList<>(chunkSize);
+        long read = 0;
+        long created = 0;
+        long rejected = 0;
+
+        while (true)
+        {
+            UserImportReader.Row row = reader.next();
+
+            if (row != null)
+            {
+                read++;
+
+                UserImportRowError error = validate(row);
+
+                if (error != null)
+                {
+                    rejected++;
+                    metrics.countRejection(error.getStatus().name().toLowerCase(Locale.ROOT));
+                    onError.accept(error);
+                    continue;
+                }
+
+                UserCreateRequest req = row.user();
+                chunk.add(new User(0L, req.getName(), req.getSurname(), req.getPersonID(), null, 0L));
+                lines.add(row.line());
+
+                if (chunk.size() < chunkSize)
+                {
+                    continue;
+                }
+            }
+
+            if (!chunk.isEmpty())
+            {
+                int inserted = importChunk(chunk, lines, onError);
+                created += inserted;
+                rejected += chunk.size() - inserted;
+                chunk.clear();
+                lines.clear();
+            }
+
+            if (row == null)
+            {
+                break;
+            }
+
+            onProgress.accept(new UserImportProgress(read, created, rejected, false));
+        }
+
+        logger.info("Import finished: read={}, created={}, rejected={}", read, created, rejected);
+
+        UserImportProgress done = new UserImportProgress(read, created, rejected, true);
+        onProgress.accept(done);
+
+        return done;
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
+    public long update(long id, UserUpdateRequest req, ETags.IfMatch ifMatch)
+    {
+        logger.info("Updating user id={}, ifMatch={}", id, ifMatch);
+
+        List<Long> expectedVersions = ifMatch == null || ifMatch.any() ? null : ifMatch.versions();
+
+        long version = repository.update(id, req.getName(), req.getSurname(), expectedVersions).orElseThrow(() ->
+        {
+            // no row changed: either it is gone or no If-Match version is current. If-Match: * only fails on a
+            // missing row, which is a failed precondition as well (RFC 9110, 13.1.1)
+            if (ifMatch == null || (!ifMatch.any() && repository.findVersionById(id).isEmpty()))
+            {
+                logger.warn("User not found id={} (update)", id);
+
+                return new UserNotFoundException(id);
+            }
+
+            logger.warn("Version mismatch id={}, ifMatch={} (update)", id, ifMatch);
+
+            return new UserVersionMismatchException(id);
+        });
+
+        changeLog.updated(id, req.getName(), req.getSurname(), version);
+        logger.info("User updated id={}, version={}", id, version);
+
+        return version;
+    }
+
+    @Timed(UserMetrics.SERVICE_TIMER)
     public void delete(long id)
     {
         logger.warn("Deleting user id={}", id);
 
-        if (repository.findById(id).isEmpty())
+        if (!repository.delete(id))
         {
             logger.warn("User not found id={} (delete)", id);
             throw new UserNotFoundException(id);
         }
 
-        repository.delete(id);
+        usedFilter.recordDelete();
+        changeLog.deleted(id);
         logger.info("User deleted id={}", id);
     }
+
+    private User findByUuid(UUID uuid)
+    {
+        logger.debug("Fetching user uuid={}", uuid);
+
+        return repository.findByUuid(uuid).orElseThrow(() ->
+        {
+            logger.warn("User not found uuid={}", uuid);
+
+            return new UserNotFoundException(uuid);
+        });
+    }
+
+    private static void assignUuids(List<User> users)
+    {
+        List<UUID> uuids = Uuids.timeOrderedBatch(users.size());
+
+        for (int i = 0; i < users.size(); i++)
+        {
+            users.get(i).setUuid(uuids.get(i));
+        }
+    }
+
+    private <T> UserPageResponse<T> searchPage(UserSearchRequest req, UserSearchCursor after, int limit,
+                                               Function<User, T> mapper)
+    {
+        List<User> users = repository.search(req.getName(), req.getSurname(), req.getPersonID(), req.getUuid(),
+                after, limit);
+        UserPageResponse<T> page = page(users, limit, mapper);
+
+        if (page.getNextAfterId() != null)
+        {
+            User last = users.getLast();
+            page.setNextCursor(new UserSearchCursor(last.getId(), last.getName(), last.getSurname()).encode());
+
+            // an ID alone cannot resume a search ordered by name
+            if (req.ordersByName())
+            {
+                page.setNextAfterId(null);
+            }
+        }
+
+        return page;
+    }
+
+    /**
+     * Inserts the candidates whose PersonID is not used and fills in their results. Returns the candidates
+     * whose shard rolled back; they have no result yet.
+     */
+    private List<Integer> insertBatch(List<UserCreateRequest> reqs, List<Integer> candidates,
+                                      UserBatchItemResponse[] results, boolean useFilter)
+    {
+        Set<String> personIDs = new HashSet<>();
+        candidates.forEach(i -> personIDs.add(reqs.get(i).getPersonID()));
+
+        Set<String> used = findUsedPersonIDs(personIDs, useFilter);
+
+        List<Integer> inserted = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+
+        for (int i : candidates)
+        {
+            UserCreateRequest req = reqs.get(i);
+
+            if (used.contains(req.getPersonID()))
+            {
+                results[i] = new UserBatchItemResponse(i, UserBatchItemStatus.PERSON_ID_ALREADY_USED, null);
+                metrics.countRejection("person_id_already_used");
+            } else
+            {
+                inserted.add(i);
+                users.add(new User(0L, req.getName(), req.getSurname(), req.getPersonID(), null, 0L));
+            }
+        }
+
+        Set<User> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        if (!users.isEmpty())
+        {
+            assignUuids(users);
+            rejected.addAll(repository.saveAll(users));
+        }
+
+        List<Integer> rolledBack = new ArrayList<>();
+
+        for (int k = 0; k < users.size(); k++)
+        {
+            User u = users.get(k);
+            int i = inserted.get(k);
+
+            if (rejected.contains(u))
+            {
+                rolledBack.add(i);
+                continue;
+            }
+
+            usedFilter.put(u.getPersonID());
+            changeLog.created(u);
+            results[i] = new UserBatchItemResponse(i, UserBatchItemStatus.CREATED, toDetail(u));
+        }
+
+        return rolledBack;
+    }
+
+    /**
+     * Memory stays bounded by the chunk: a PersonID repeated within the chunk is told apart as a duplicate in
+     * the file, one repeated from an earlier chunk is rejected by the unique index like any stored PersonID.
+     */
+    private int importChunk(List<User> chunk, List<Long> lines, Consumer<UserImportRowError> onError)
+    {
+        assignUuids(chunk);
+
+        int inserted = repository.importChunk(chunk);
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < chunk.size(); i++)
+        {
+            User u = chunk.get(i);
+            boolean first = seen.add(u.getPersonID());
+
+            if (u.getId() != 0)
+            {
+                usedFilter.put(u.getPersonID());
+                changeLog.created(u);
+                continue;
+            }
+
+            UserImportStatus status = first ? UserImportStatus.PERSON_ID_ALREADY_USED : UserImportStatus.DUPLICATE_IN_FILE;
+            String message = first
+                    ? "PersonID is already used, possibly by an earlier chunk of this file"
+                    : "PersonID repeats an earlier row of the file";
+
+            metrics.countRejection(status.name().toLowerCase(Locale.ROOT));
+            onError.accept(new UserImportRowError(lines.get(i), status, u.getPersonID(), message));
+        }
+
+        logger.debug("Imported chunk: {} of {} rows inserted", inserted, chunk.size());
+
+        return inserted;
+    }
+
+    private static UserImportRowError validate(UserImportReader.Row row)
+    {
+        UserCreateRequest req = row.user();
+
+        if (req == null)
+        {
+            return new UserImportRowError(row.line(), UserImportStatus.MALFORMED, null, row.error());
+        }
+
+        if (Strings.isNullOrEmpty(req.getName()) || Strings.isNullOrEmpty(req.getSurname())
+                || Strings.isNullOrEmpty(req.getPersonID()))
+        {
+            return new UserImportRowError(row.line(), UserImportStatus.MALFORMED, req.getPersonID(),
+                    "Name, surname and personID are required");
+        }
+
+        if (req.getName().length() > MAX_NAME_LENGTH || req.getSurname().length() > MAX_NAME_LENGTH)
+        {
+            return new UserImportRowError(row.line(), UserImportStatus.MALFORMED, req.getPersonID(),
+                    "Name and surname must be at most " + MAX_NAME_LENGTH + " characters");
+        }
+
+        if (!PersonIDProvider.isValid(req.getPersonID()))
+        {
+            return new UserImportRowError(row.line(), UserImportStatus.INVALID_PERSON_ID, req.getPersonID(),
+                    "PersonID is not valid");
+        }
+
+        return null;
+    }
+
+    private Set<String> findUsedPersonIDs(Set<String> personIDs, boolean useFilter)
+    {
+        List<String> maybeUsed = useFilter
+                ? personIDs.stream().filter(usedFilter::mightContain).toList()
+                : List.copyOf(personIDs);
+
+        if (maybeUsed.isEmpty())
+        {
+            return Set.of();
+        }
+
+        Set<String> used = repository.findUsedPersonIDs(maybeUsed);
+
+        if (useFilter)
+        {
+            usedFilter.recordLookup(maybeUsed.size(), used.size());
+        }
+
+        return used;
+    }
+
+    // one item per requested ID, in request order; missing users are reported, not thrown
+    private <T> List<UserLookupItemResponse<T>> lookup(List<Long> ids, Function<User, T> mapper)
+    {
+        logger.debug("Looking up {} users", ids.size());
+
+        Map<Long, User> found = repository.findByIds(ids);
+        List<UserLookupItemResponse<T>> items = new ArrayList<>(ids.size());
+
+        for (long id : ids)
+        {
+            User u = found.get(id);
+
+            items.add(u == null
+                    ? new UserLookupItemResponse<>(id, UserLookupItemStatus.NOT_FOUND, null)
+                    : new UserLookupItemResponse<>(id, UserLookupItemStatus.FOUND, mapper.apply(u)));
+        }
+
+        logger.debug("Lookup found {} of {} users", found.size(), ids.size());
+
+        return items;
+    }
+
+    static <T> UserPageResponse<T> page(List<User> users, int limit, Function<User, T> mapper)
+    {
+        Long nextAfterId = users.size() == limit ? users.getLast().getId() : null;
+
+        UserPageResponse<T> page = new UserPageResponse<>(users.stream().map(mapper).toList(), nextAfterId);
+        page.setEtag(ETags.forPage(users));
+
+        return page;
+    }
+
+    static UserResponse toBasic(User u)
+    {
+        return new UserResponse(u.getId(), u.getName(), u.getSurname(), u.getVersion());
+    }
+
+    static UserDetailResponse toDetail(User u)
+    {
+        return new UserDetailResponse(u.getId(), u.getName(), u.getSurname(), u.getPersonID(), u.getUuid(), u.getVersion());
+    }
+
+    static UserFieldsResponse toFields(User u, Set<UserField> fields)
+    {
+        Map<String, Object> values = new LinkedHashMap<>();
+
+        for (UserField field : fields)
+        {
+            values.put(field.jsonName(), switch (field)
+            {
+                // a string, as in the other responses, so JavaScript clients do not round it
+                case ID -> String.valueOf(u.getId());
+                case NAME -> u.getName();
+                case SURNAME -> u.getSurname();
+                case PERSON_ID -> u.getPersonID();
+                case UUID -> u.getUuid();
+                case VERSION -> u.getVersion();
+            });
+        }
+
+        return new UserFieldsResponse(values, u.getVersion());
+    }
 }
@@ -0,0 +1,141 @@
+package com.genesis.resources.utils;
+
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.model.User;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public final class ETags
+{
+    /**
+     * A parsed If-Match header: "*", which any existing row satisfies, or the versions it lists. Weak tags
+     * and tags that are not a version can never match under strong comparison and are left out, so the list
+     * may be empty.
+     */
+    public record IfMatch(boolean any, List<Long> versions)
+    {
+    }
+
+    private ETags()
+    {
+    }
+
+    public static String forVersion(long version)
+    {
+        return "\"" + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * Tags one representation of a resource: the basic one keeps the tag as is, ?detail=true and ?fields= append
+     * a suffix, so a cache revalidating one of them is never handed another. If-Match still reads the version
+     * from any of them.
+     */
+    public static String forRepresentation(String etag, boolean detail, Set<UserField> fields)
+    {
+        String suffix;
+
+        if (fields != null)
+        {
+            int mask = 0;
+
+            for (UserField field : fields)
+            {
+                mask |= 1 << field.ordinal();
+            }
+
+            suffix = "f" + Integer.toHexString(mask);
+        } else if (detail)
+        {
+            suffix = "detail";
+        } else
+        {
+            return etag;
+        }
+
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    public static String forPage(List<User> users)
+    {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+
+        for (User u : users)
+        {
+            hasher.putLong(u.getId()).putLong(u.getVersion());
+        }
+
+        return "\"" + hasher.hash() + "\"";
+    }
+
+    public static boolean matchesAny(String ifNoneMatch, String etag)
+    {
+        for (String value : tags(ifNoneMatch))
+        {
+            // If-None-Match compares weakly
+            if (value.startsWith("W/"))
+            {
+                value = value.substring(2);
+            }
+
+            if (value.equals("*") || value.equals(etag))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public static IfMatch parseIfMatch(String ifMatch)
+    {
+        List<Long> versions = new ArrayList<>();
+
+        for (String value : tags(ifMatch))
+        {
+            if (value.equals("*"))
+            {
+                return new IfMatch(true, List.of());
+            }
+
+            if (value.length() < 3 || !value.startsWith("\"") || !value.endsWith("\""))
+            {
+                continue;
+            }
+
+            String version = value.substring(1, value.length() - 1);
+            int suffix = version.indexOf('-');
+
+            try
+            {
+                // a detail or fields representation tags the same version
+                versions.add(Long.parseUnsignedLong(suffix < 0 ? version : version.substring(0, suffix), 16));
+            } catch (NumberFormatException e)
+            {
+                // not one of our version tags, so it matches no row
+            }
+        }
+
+        return new IfMatch(false, List.copyOf(versions));
+    }
+
+    private static List<String> tags(String header)
+    {
+        List<String> tags = new ArrayList<>();
+
+        for (String candidate : header.split(","))
+        {
+            String value = candidate.trim();
+
+            if (!value.isEmpty())
+            {
+                tags.add(value);
+            }
+        }
+
+        return tags;
+    }
+}
@@ -0,0 +1,21 @@
+package com.genesis.resources.utils;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig
+{
+    /**
+     * Times @Timed methods. The operation tag is the method name, so overloads share a series, and the
+     * aspect adds the exception tag; class and method tags are left out.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry)
+    {
+        return new TimedAspect(registry, pjp -> Tags.of("operation", pjp.getSignature().getName()));
+    }
+}
@@ -1,21 +1,66 @@
 package com.genesis.resources.utils;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
-public class PersonIDProvider
+public class PersonIDProvider implements MeterBinder
 {
     private static final Logger logger = LoggerFactory.getLogger(PersonIDProvider.class);
 
-    private static final Set<String> validPersonIDs = new HashSet<>();
+    private static final String DEFAULT_LOCATION = "dataPersonId.txt";
+
+    private static volatile PersonIDWhitelist validPersonIDs = PersonIDWhitelist.EMPTY;
+
+    private final Resource location;
+
+    private final long watchIntervalSeconds;
+
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+        Thread thread = new Thread(r, "personid-reloader");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    private final AtomicLong reloadFailures = new AtomicLong();
+
+    // of the file behind the current whitelist; a failed read leaves it alone, so the next check retries
+    private volatile long lastModified;
+
+    public PersonIDProvider()
+    {
+        this(new ClassPathResource(DEFAULT_LOCATION), 0);
+    }
+
+    @Autowired
+    public PersonIDProvider(@Value("${genesis.personid.location:classpath:" + DEFAULT_LOCATION + "}") Resource location,
+                            @Value("${genesis.personid.watch-interval-seconds:0}") long watchIntervalSeconds)
+    {
+        this.location = location;
+        this.watchIntervalSeconds = watchIntervalSeconds;
+    }
 
     public static boolean isValid(String personID)
     {
@@ -25,17 +70,113 @@ public class PersonIDProvider
     @PostConstruct
     public void load()
     {
-        logger.info("Loading PersonID whitelist from dataPersonID.txt");
+        logger.info("Loading PersonID whitelist from {}", location);
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getClassLoader().getResourceAsStream("dataPersonID.txt"))))
+        swap(read());
+
+        if (watchIntervalSeconds > 0)
         {
-            reader.lines().map(String::trim).filter(s -> !s.isEmpty()).forEach(validPersonIDs::add);
+            logger.info("Watching {} for changes every {}s", location, watchIntervalSeconds);
+            reloader.scheduleWithFixedDelay(this::reloadIfModified, watchIntervalSeconds, watchIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public CompletableFuture<Integer> reload()
+    {
+        return CompletableFuture.supplyAsync(() ->
+        {
+            logger.info("Reloading PersonID whitelist from {}", location);
+
+            try
+            {
+                return swap(read());
+            } catch (RuntimeException e)
+            {
+                reloadFailed(e);
 
-            logger.info("Loaded {} valid PersonIDs", validPersonIDs.size());
+                throw e;
+            }
+        }, reloader);
+    }
+
+    public long reloadFailures()
+    {
+        return reloadFailures.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        FunctionCounter.builder("genesis.personid.reload.failures", reloadFailures, AtomicLong::get)
+                .description("PersonID whitelist reloads that failed and kept the previous whitelist")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        reloader.shutdownNow();
+    }
+
+    void reloadIfModified()
+    {
+        try
+        {
+            if (location.lastModified() != lastModified)
+            {
+                logger.info("PersonID whitelist {} changed, reloading", location);
+                swap(read());
+            }
         } catch (Exception e)
         {
-            logger.error("Failed to load dataPersonID.txt", e);
-            throw new IllegalStateException("Failed to load dataPersonID.txt", e);
+            reloadFailed(e);
         }
     }
+
+    private void reloadFailed(Exception e)
+    {
+        reloadFailures.incrementAndGet();
+
+        logger.error("Failed to reload PersonID whitelist from {}, keeping the current one", location, e);
+    }
+
+    private int swap(Loaded loaded)
+    {
+        validPersonIDs = loaded.whitelist();
+        lastModified = loaded.lastModified();
+
+        logger.info("Loaded {} valid PersonIDs", loaded.whitelist().size());
+
+        return loaded.whitelist().size();
+    }
+
+    private Loaded read()
+    {
+        try
+        {
+            if (location.isFile())
+            {
+                // taken before reading, so a change made while parsing is picked up by the next check
+                long modified = location.lastModified();
+
+                try (FileChannel channel = FileChannel.open(location.getFile().toPath(), StandardOpenOption.READ))
+                {
+                    return new Loaded(PersonIDWhitelist.parse(
+                            channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())), modified);
+                }
+            }
+
+            try (InputStream in = location.getInputStream())
+            {
+                return new Loaded(PersonIDWhitelist.parse(ByteBuffer.wrap(in.readAllBytes())), 0);
+            }
+        } catch (Exception e)
+        {
+            throw new IllegalStateException("Failed to load " + location, e);
+        }
+    }
+
+    private record Loaded(PersonIDWhitelist whitelist, long lastModified)
+    {
+    }
 }
@@ -0,0 +1,231 @@
+package com.genesis.resources.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class PersonIDWhitelist
+{
+    public static final PersonIDWhitelist EMPTY = new PersonIDWhitelist(new byte[0], 0, 0);
+
+    // sorted, zero-padded records of `width` bytes each
+    private final byte[] records;
+    private final int width;
+    private final int size;
+
+    private PersonIDWhitelist(byte[] records, int width, int size)
+    {
+        this.records = records;
+        this.width = width;
+        this.size = size;
+    }
+
+    public static PersonIDWhitelist parse(ByteBuffer data)
+    {
+        int limit = data.limit();
+        int count = 0;
+        int width = 0;
+
+        for (int start = 0; start < limit; )
+        {
+            int end = lineEnd(data, start, limit);
+            int from = trimmedStart(data, start, end);
+            int length = trimmedEnd(data, from, end) - from;
+
+            if (length > 0)
+            {
+                count++;
+                width = Math.max(width, length);
+            }
+
+            start = end + 1;
+        }
+
+        if (count == 0)
+        {
+            return EMPTY;
+        }
+
+        if ((long) count * width > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalArgumentException("PersonID list too large: " + count + " entries of width " + width);
+        }
+
+        byte[] records = new byte[count * width];
+        int index = 0;
+
+        for (int start = 0; start < limit; )
+        {
+            int end = lineEnd(data, start, limit);
+            int from = trimmedStart(data, start, end);
+            int to = trimmedEnd(data, from, end);
+
+            if (to > from)
+            {
+                data.get(from, records, index * width, to - from);
+                index++;
+            }
+
+            start = end + 1;
+        }
+
+        byte[] sorted = radixSort(records, count, width);
+        int unique = deduplicate(sorted, count, width);
+
+        return new PersonIDWhitelist(unique == count ? sorted : Arrays.copyOf(sorted, unique * width), width, unique);
+    }
+
+    public boolean contains(String personID)
+    {
+        if (personID == null || personID.isEmpty() || size == 0)
+        {
+            return false;
+        }
+
+        byte[] key = personID.getBytes(StandardCharsets.UTF_8);
+
+        if (key.length > width || personID.indexOf('\0') >= 0)
+        {
+            return false;
+        }
+
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mid, key);
+
+            if (cmp < 0)
+            {
+                low = mid + 1;
+            } else if (cmp > 0)
+            {
+                high = mid - 1;
+            } else
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    private int compare(int index, byte[] key)
+    {
+        int offset = index * width;
+
+        for (int i = 0; i < width; i++)
+        {
+            int a = records[offset + i] & 0xFF;
+            int b = i < key.length ? key[i] & 0xFF : 0;
+
+            if (a != b)
+            {
+                return a - b;
+            }
+        }
+
+        return 0;
+    }
+
+    private static int lineEnd(ByteBuffer data, int start, int limit)
+    {
+        int end = start;
+
+        while (end < limit && data.get(end) != '\n')
+        {
+            end++;
+        }
+
+        return end;
+    }
+
+    private static int trimmedStart(ByteBuffer data, int start, int end)
+    {
+        while (start < end && (data.get(start) & 0xFF) <= ' ')
+        {
+            start++;
+        }
+
+        return start;
+    }
+
+    private static int trimmedEnd(ByteBuffer data, int start, int end)
+    {
+        while (end > start && (data.get(end - 1) & 0xFF) <= ' ')
+        {
+            end--;
+        }
+
+        return end;
+    }
+
+    // LSD radix sort over the fixed-width records, one counting pass per byte position
+    private static byte[] radixSort(byte[] records, int count, int width)
+    {
+        byte[] src = records;
+        byte[] dst = new byte[records.length];
+        int[] offsets = new int[257];
+
+        for (int pos = width - 1; pos >= 0; pos--)
+        {
+            Arrays.fill(offsets, 0);
+
+            for (int i = 0; i < count; i++)
+            {
+                offsets[(src[i * width + pos] & 0xFF) + 1]++;
+            }
+
+            if (offsets[(src[pos] & 0xFF) + 1] == count)
+            {
+                continue;
+            }
+
+            for (int b = 0; b < 256; b++)
+            {
+                offsets[b + 1] += offsets[b];
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                int b = src[i * width + pos] & 0xFF;
+                System.arraycopy(src, i * width, dst, offsets[b]++ * width, width);
+            }
+
+            byte[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        return src;
+    }
+
+    private static int deduplicate(byte[] sorted, int count, int width)
+    {
+        int unique = 1;
+
+        for (int i = 1; i < count; i++)
+        {
+            int last = (unique - 1) * width;
+
+            if (!Arrays.equals(sorted, i * width, i * width + width, sorted, last, last + width))
+            {
+                if (unique != i)
+                {
+                    System.arraycopy(sorted, i * width, sorted, unique * width, width);
+                }
+
+                unique++;
+            }
+        }
+
+        return unique;
+    }
+}
@@ -0,0 +1,128 @@
+package com.genesis.resources.utils;
+
+import com.genesis.resources.dto.UserDetailResponse;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+public final class UserExportWriter implements Closeable
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UserFileFormat format;
+
+    private final ObjectWriter json;
+
+    private final OutputStream out;
+
+    private final GZIPOutputStream gzip;
+
+    private final int flushRows;
+
+    private long rows;
+
+    public UserExportWriter(UserFileFormat format, ObjectWriter json, OutputStream target, boolean gzip, int flushRows) throws IOException
+    {
+        this.format = format;
+        this.json = json;
+        this.flushRows = flushRows;
+
+        // syncFlush so every periodic flush pushes the compressed rows to the client
+        this.gzip = gzip ? new GZIPOutputStream(target, BUFFER_SIZE, true) : null;
+        this.out = new BufferedOutputStream(gzip ? this.gzip : target, BUFFER_SIZE);
+
+        if (format == UserFileFormat.CSV)
+        {
+            writeAscii("ID,Name,Surname,PersonID,Uuid,Version\n");
+        }
+    }
+
+    public void write(UserDetailResponse user)
+    {
+        try
+        {
+            if (format == UserFileFormat.NDJSON)
+            {
+                out.write(json.writeValueAsBytes(user));
+                out.write('\n');
+            } else
+            {
+                writeCsv(user);
+            }
+
+            if (++rows % flushRows == 0)
+            {
+                out.flush();
+            }
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long rows()
+    {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        out.flush();
+
+        if (gzip != null)
+        {
+            gzip.finish();
+            gzip.flush();
+        }
+    }
+
+    private void writeCsv(UserDetailResponse user) throws IOException
+    {
+        writeAscii(String.valueOf(user.getId()));
+        out.write(',');
+        writeCsvField(user.getName());
+        out.write(',');
+        writeCsvField(user.getSurname());
+        out.write(',');
+        writeCsvField(user.getPersonID());
+        out.write(',');
+        writeCsvField(String.valueOf(user.getUuid()));
+        out.write(',');
+        writeAscii(user.getVersion() == null ? "" : String.valueOf(user.getVersion()));
+        out.write('\n');
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks and double the quotes
+    private void writeCsvField(String value) throws IOException
+    {
+        if (value == null)
+        {
+            return;
+        }
+
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+
+        if (!quote)
+        {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        out.write('"');
+        out.write(value.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+        out.write('"');
+    }
+
+    private void writeAscii(String value) throws IOException
+    {
+        out.write(value.getBytes(StandardCharsets.US_ASCII));
+    }
+}
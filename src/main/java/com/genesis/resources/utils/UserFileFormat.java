@@ -0,0 +1,42 @@
+package com.genesis.resources.utils;
+
+import java.util.Locale;
+
+public enum UserFileFormat
+{
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    UserFileFormat(String contentType, String extension)
+    {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType()
+    {
+        return contentType;
+    }
+
+    public String extension()
+    {
+        return extension;
+    }
+
+    public static UserFileFormat of(String name)
+    {
+        for (UserFileFormat format : values())
+        {
+            if (format.extension.equals(name.toLowerCase(Locale.ROOT)))
+            {
+                return format;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,210 @@
+package com.genesis.resources.utils;
+
+import com.genesis.resources.dto.UserCreateRequest;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class UserImportReader implements Closeable
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public record Row(long line, UserCreateRequest user, String error)
+    {
+    }
+
+    private final UserFileFormat format;
+
+    private final ObjectReader json;
+
+    private final BufferedReader in;
+
+    private long line;
+
+    // CSV column positions resolved from the header record
+    private int nameColumn = -1;
+    private int surnameColumn = -1;
+    private int personIDColumn = -1;
+
+    public UserImportReader(UserFileFormat format, ObjectReader json, InputStream source) throws IOException
+    {
+        this.format = format;
+        this.json = json;
+        this.in = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (format == UserFileFormat.CSV)
+        {
+            readHeader();
+        }
+    }
+
+    /**
+     * Returns the next record, or null at the end of the input. Malformed records come back with an error
+     * instead of failing the whole import.
+     */
+    public Row next() throws IOException
+    {
+        return format == UserFileFormat.CSV ? nextCsv() : nextNdjson();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    private Row nextNdjson() throws IOException
+    {
+        String text;
+
+        do
+        {
+            text = in.readLine();
+            line++;
+
+            if (text == null)
+            {
+                return null;
+            }
+        } while (text.isBlank());
+
+        try
+        {
+            return new Row(line, json.readValue(text), null);
+        } catch (JacksonException e)
+        {
+            return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row nextCsv() throws IOException
+    {
+        List<String> fields;
+        long start;
+
+        do
+        {
+            start = line + 1;
+            fields = readRecord();
+
+            if (fields == null)
+            {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.getFirst().isEmpty());
+
+        int columns = Math.max(nameColumn, Math.max(surnameColumn, personIDColumn)) + 1;
+
+        if (fields.size() < columns)
+        {
+            return new Row(start, null, "Expected at least " + columns + " columns, got " + fields.size());
+        }
+
+        UserCreateRequest user = new UserCreateRequest();
+        user.setName(fields.get(nameColumn));
+        user.setSurname(fields.get(surnameColumn));
+        user.setPersonID(fields.get(personIDColumn));
+
+        return new Row(start, user, null);
+    }
+
+    private void readHeader() throws IOException
+    {
+        List<String> header = readRecord();
+
+        if (header == null)
+        {
+            throw new IllegalArgumentException("CSV input has no header");
+        }
+
+        for (int i = 0; i < header.size(); i++)
+        {
+            switch (header.get(i).trim().toLowerCase(Locale.ROOT))
+            {
+                case "name" -> nameColumn = i;
+                case "surname" -> surnameColumn = i;
+                case "personid" -> personIDColumn = i;
+                default ->
+                {
+                    // extra columns (e.g. ID, Uuid from an export) are ignored
+                }
+            }
+        }
+
+        if (nameColumn < 0 || surnameColumn < 0 || personIDColumn < 0)
+        {
+            throw new IllegalArgumentException("CSV header must contain Name, Surname and PersonID columns");
+        }
+    }
+
+    // RFC 4180 record: quoted fields may contain separators, doubled quotes and line breaks
+    private List<String> readRecord() throws IOException
+    {
+        int c = in.read();
+
+        if (c < 0)
+        {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        line++;
+
+        for (; c >= 0; c = in.read())
+        {
+            if (quoted)
+            {
+                if (c == '"')
+                {
+                    in.mark(1);
+
+                    if (in.read() == '"')
+                    {
+                        field.append('"');
+                    } else
+                    {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else
+                {
+                    if (c == '\n')
+                    {
+                        line++;
+                    }
+
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty())
+            {
+                quoted = true;
+            } else if (c == ',')
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n')
+            {
+                break;
+            } else if (c != '\r')
+            {
+                field.append((char) c);
+            }
+        }
+
+        fields.add(field.toString());
+
+        return fields;
+    }
+}
@@ -0,0 +1,101 @@
+package com.genesis.resources.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+public class UserMetrics
+{
+    /**
+     * UserService operation latency: @Timed(SERVICE_TIMER) on a service method times it with the method
+     * name as the operation tag, see MetricsConfig.
+     */
+    public static final String SERVICE_TIMER = "genesis.user.service";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> sqlTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    public UserMetrics(MeterRegistry registry)
+    {
+        this.registry = registry;
+    }
+
+    /**
+     * Starts timing a service operation that finishes later than its method returns (the reactive service,
+     * which @Timed cannot follow); stopOperation records it into the same SERVICE_TIMER series.
+     */
+    public Timer.Sample startOperation()
+    {
+        return Timer.start(registry);
+    }
+
+    public void stopOperation(Timer.Sample sample, String operation, Throwable error)
+    {
+        sample.stop(Timer.builder(SERVICE_TIMER)
+                .tag("operation", operation)
+                .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+                .register(registry));
+    }
+
+    public <T> T timeSql(String statement, Supplier<T> action)
+    {
+        return sqlTimer(statement).record(action);
+    }
+
+    public void timeSql(String statement, Runnable action)
+    {
+        sqlTimer(statement).record(action);
+    }
+
+    public void recordRows(String statement, long rows)
+    {
+        rowSummaries.computeIfAbsent(statement, s -> DistributionSummary.builder("genesis.user.sql.rows")
+                        .description("Rows returned per UserRepository statement")
+                        .tag("statement", s)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(rows);
+    }
+
+    public void countRejection(String reason)
+    {
+        rejectionCounters.computeIfAbsent(reason, r -> Counter.builder("genesis.user.rejections")
+                        .description("Create requests rejected by PersonID validation")
+                        .tag("reason", r)
+                        .register(registry))
+                .increment();
+    }
+
+    public void countError(String exception, int status)
+    {
+        errorCounters.computeIfAbsent(exception + ":" + status, k -> Counter.builder("genesis.user.errors")
+                        .description("Outcomes of GlobalExceptionHandler")
+                        .tag("exception", exception)
+                        .tag("status", String.valueOf(status))
+                        .register(registry))
+                .increment();
+    }
+
+    private Timer sqlTimer(String statement)
+    {
+        return sqlTimers.computeIfAbsent(statement, s -> Timer.builder("genesis.user.sql")
+                .description("UserRepository statement latency")
+                .tag("statement", s)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
@@ -0,0 +1,64 @@
+package com.genesis.resources.utils;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class Uuids
+{
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private Uuids()
+    {
+    }
+
+    public static UUID timeOrdered()
+    {
+        return timeOrderedBatch(1).getFirst();
+    }
+
+    /**
+     * Time-ordered (version 7) UUIDs: 48 bits of Unix milliseconds followed by 74 random bits, drawn with one
+     * SecureRandom call for the whole batch. New values land at the end of the Uuid index instead of on a
+     * random page.
+     */
+    public static List<UUID> timeOrderedBatch(int count)
+    {
+        byte[] bytes = new byte[count * 16];
+        RANDOM.nextBytes(bytes);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long millis = System.currentTimeMillis() & 0xFFFFFFFFFFFFL;
+        List<UUID> uuids = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            long msb = (millis << 16) | 0x7000L | (buffer.getLong() & 0x0FFFL);
+            long lsb = (buffer.getLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+            uuids.add(new UUID(msb, lsb));
+        }
+
+        return uuids;
+    }
+
+    /**
+     * Big-endian bytes for the BINARY(16) Uuid column, so the database orders them like the UUIDs themselves.
+     */
+    public static byte[] toBytes(UUID uuid)
+    {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -18,14 +18,50 @@ GO
 
 CREATE TABLE dbo.Users
 (
-    ID       BIGINT IDENTITY (1,1) NOT NULL,
+    -- snowflake ID assigned by the application; it encodes the shard holding the row
+    ID       BIGINT                NOT NULL,
     Name     VARCHAR(255)          NOT NULL,
     Surname  VARCHAR(255)          NOT NULL,
     PersonId VARCHAR(12)           NOT NULL,
-    Uuid     VARCHAR(36)           NOT NULL,
+    -- UUIDv7 as big-endian bytes; BINARY rather than UNIQUEIDENTIFIER because SQL Server orders the latter
+    -- by its last six bytes first, which would scatter time-ordered values across the index again
+    Uuid     BINARY(16)            NOT NULL,
+    Version  ROWVERSION            NOT NULL,
 
     CONSTRAINT PK_Users PRIMARY KEY CLUSTERED (ID),
     CONSTRAINT UQ_Users_PersonId UNIQUE (PersonId),
     CONSTRAINT UQ_Users_Uuid UNIQUE (Uuid)
 );
 GO
+
+-- prefix searches (Name LIKE 'x%' / Surname LIKE 'x%') seek on the leading column; the clustered ID and the
+-- included columns make them covering, so a search page never touches the base table
+CREATE NONCLUSTERED INDEX IX_Users_Name_Surname ON dbo.Users (Name, Surname) INCLUDE (PersonId, Uuid, Version);
+GO
+
+CREATE NONCLUSTERED INDEX IX_Users_Surname_Name ON dbo.Users (Surname, Name) INCLUDE (PersonId, Uuid, Version);
+GO
+
+-- append-only change feed; EventID is the offset clients resume from (GET /api/v1/users/changes?since=).
+-- WrittenAt is the database clock at insert: readers only get events older than the commit-lag bound
+CREATE TABLE dbo.UserEvents
+(
+    EventID    BIGINT IDENTITY (1,1) NOT NULL,
+    Type       VARCHAR(16)           NOT NULL,
+    UserID     BIGINT                NOT NULL,
+    Name       VARCHAR(255)          NULL,
+    Surname    VARCHAR(255)          NULL,
+    PersonId   VARCHAR(12)           NULL,
+    Uuid       BINARY(16)            NULL,
+    Version    BIGINT                NULL,
+    OccurredAt DATETIME2(3)          NOT NULL,
+    WrittenAt  DATETIME2(3)          NOT NULL CONSTRAINT DF_UserEvents_WrittenAt DEFAULT SYSUTCDATETIME(),
+
+    CONSTRAINT PK_UserEvents PRIMARY KEY CLUSTERED (EventID)
+);
+GO
+
+-- every poll looks for the first event younger than the commit-lag bound; this makes that a seek on the recent
+-- tail instead of a scan of the whole log
+CREATE NONCLUSTERED INDEX IX_UserEvents_WrittenAt ON dbo.UserEvents (WrittenAt) INCLUDE (EventID);
+GO
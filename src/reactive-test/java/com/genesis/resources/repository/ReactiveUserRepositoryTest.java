@@ -0,0 +1,104 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.model.User;
+import com.genesis.resources.utils.Uuids;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactiveUserRepositoryTest
+{
+    private DatabaseClient db;
+
+    private ReactiveUserRepository repository;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp()
+    {
+        db = DatabaseClient.create(ConnectionFactories.get("r2dbc:h2:mem:///reactive;MODE=MSSQLServer;DB_CLOSE_DELAY=-1"));
+        db.sql("""
+                CREATE TABLE Users
+                (
+                    ID       BIGINT       PRIMARY KEY,
+                    Name     VARCHAR(255) NOT NULL,
+                    Surname  VARCHAR(255) NOT NULL,
+                    PersonId VARCHAR(12)  NOT NULL UNIQUE,
+                    Uuid     BINARY(16)   NOT NULL UNIQUE,
+                    Version  BIGINT       DEFAULT 1 NOT NULL
+                )""").then().block();
+
+        repository = new ReactiveUserRepository(db, 1, 0);
+        UserIdGenerator generator = new UserIdGenerator(1);
+
+        for (int i = 0; i < 5; i++)
+        {
+            long id = generator.next(0);
+            ids.add(id);
+            db.sql("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (:id, :name, :surname, :personID, :uuid)")
+                    .bind("id", id)
+                    .bind("name", "N" + i)
+                    .bind("surname", "S" + i)
+                    .bind("personID", "p" + i)
+                    .bind("uuid", Uuids.toBytes(new UUID(0, i)))
+                    .then().block();
+        }
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        db.sql("DROP TABLE Users").then().block();
+    }
+
+    @Test
+    void findByIdEmitUserOrNothing()
+    {
+        StepVerifier.create(repository.findById(ids.get(2)))
+                .assertNext(u ->
+                {
+                    assertEquals("N2", u.getName());
+                    assertEquals(new UUID(0, 2), u.getUuid());
+                    assertEquals(1L, u.getVersion());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(repository.findById(42L)).verifyComplete();
+    }
+
+    @Test
+    void findPageContinueAfterKey()
+    {
+        StepVerifier.create(repository.findPage(ids.get(1), 2).map(User::getId))
+                .expectNext(ids.get(2), ids.get(3))
+                .verifyComplete();
+    }
+
+    @Test
+    void findAllHonourDemand()
+    {
+        StepVerifier.create(repository.findAll().map(User::getId), 2)
+                .expectNext(ids.get(0), ids.get(1))
+                .thenRequest(3)
+                .expectNext(ids.get(2), ids.get(3), ids.get(4))
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteReportWhetherRowExisted()
+    {
+        StepVerifier.create(repository.delete(ids.get(0))).expectNext(true).verifyComplete();
+        StepVerifier.create(repository.delete(ids.get(0))).expectNext(false).verifyComplete();
+        StepVerifier.create(repository.findVersionById(ids.get(0))).verifyComplete();
+    }
+}
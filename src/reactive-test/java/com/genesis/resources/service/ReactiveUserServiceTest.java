@@ -0,0 +1,173 @@
+package com.genesis.resources.service;
+
+import com.genesis.resources.dto.UserCreateRequest;
+import com.genesis.resources.dto.UserUpdateRequest;
+import com.genesis.resources.exception.InvalidPersonIDException;
+import com.genesis.resources.exception.PersonIDAlreadyUsedException;
+import com.genesis.resources.exception.UserNotFoundException;
+import com.genesis.resources.exception.UserVersionMismatchException;
+import com.genesis.resources.model.User;
+import com.genesis.resources.repository.ReactiveUserRepository;
+import com.genesis.resources.utils.ETags;
+import com.genesis.resources.utils.PersonIDProvider;
+import com.genesis.resources.utils.UserMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest
+{
+
+    @Mock
+    private ReactiveUserRepository repository;
+
+    @Mock
+    private UsedPersonIDFilter usedFilter;
+
+    @Mock
+    private UserChangeLog changeLog;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReactiveUserService service;
+
+    @BeforeAll
+    static void initPersonIDs()
+    {
+        new PersonIDProvider().load();
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        service = new ReactiveUserService(repository, usedFilter, new UserMetrics(meterRegistry), changeLog);
+    }
+
+    @Test
+    void createErrorInvalidPersonIDPersonIDNotInList()
+    {
+        StepVerifier.create(service.create(request("XXXXXXXXXXXX")))
+                .verifyError(InvalidPersonIDException.class);
+
+        verify(repository, never()).save(anyString(), anyString(), anyString(), any());
+        assertEquals(1.0, meterRegistry.counter("genesis.user.rejections", "reason", "invalid_person_id").count());
+    }
+
+    @Test
+    void createErrorPersonIDAlreadyUsed()
+    {
+        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), any(UUID.class)))
+                .thenReturn(Mono.error(new PersonIDAlreadyUsedException("jXa4g3H7oPq2")));
+
+        StepVerifier.create(service.create(request("jXa4g3H7oPq2")))
+                .verifyError(PersonIDAlreadyUsedException.class);
+
+        assertEquals(1.0, meterRegistry.counter("genesis.user.rejections", "reason", "person_id_already_used").count());
+    }
+
+    @Test
+    void createEmitDetailAndRecordChange()
+    {
+        User saved = new User(10L, "John", "Doe", "jXa4g3H7oPq2", new UUID(0, 10), 1L);
+        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), any(UUID.class))).thenReturn(Mono.just(saved));
+
+        StepVerifier.create(service.create(request("jXa4g3H7oPq2")))
+                .assertNext(response -> assertEquals(10L, response.getId()))
+                .verifyComplete();
+
+        verify(usedFilter).put("jXa4g3H7oPq2");
+        verify(changeLog).created(saved);
+        assertEquals(1L, meterRegistry.timer("genesis.user.service",
+                "operation", "create", "exception", "none").count());
+    }
+
+    @Test
+    void getTimeOperationWithExceptionTag()
+    {
+        when(repository.findById(5L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.get(5L)).verifyError(UserNotFoundException.class);
+
+        assertEquals(1L, meterRegistry.timer("genesis.user.service",
+                "operation", "get", "exception", "UserNotFoundException").count());
+    }
+
+    @Test
+    void updateErrorVersionMismatchWhenExpectedVersionIsStale()
+    {
+        when(repository.update(3L, "New", null, List.of(1L))).thenReturn(Mono.empty());
+        when(repository.findVersionById(3L)).thenReturn(Mono.just(2L));
+
+        StepVerifier.create(service.update(3L, updateRequest(), ETags.parseIfMatch("\"1\"")))
+                .verifyError(UserVersionMismatchException.class);
+    }
+
+    @Test
+    void updateErrorUserNotFoundUserDoesNotExist()
+    {
+        when(repository.update(3L, "New", null, null)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update(3L, updateRequest(), null))
+                .verifyError(UserNotFoundException.class);
+
+        verify(repository, never()).findVersionById(3L);
+    }
+
+    @Test
+    void deleteErrorUserNotFoundWhenNothingDeleted()
+    {
+        when(repository.delete(7L)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.delete(7L)).verifyError(UserNotFoundException.class);
+
+        verify(usedFilter, never()).recordDelete();
+        verify(changeLog, never()).deleted(7L);
+    }
+
+    @Test
+    void deleteRecordDeleteInFilterAndChangeLog()
+    {
+        when(repository.delete(7L)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.delete(7L)).verifyComplete();
+
+        verify(usedFilter).recordDelete();
+        verify(changeLog).deleted(7L);
+    }
+
+    private static UserCreateRequest request(String personID)
+    {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setName("John");
+        req.setSurname("Doe");
+        req.setPersonID(personID);
+
+        return req;
+    }
+
+    private static UserUpdateRequest updateRequest()
+    {
+        UserUpdateRequest req = new UserUpdateRequest();
+        req.setName("New");
+
+        return req;
+    }
+}
@@ -0,0 +1,140 @@
+package com.genesis.resources.controller;
+
+import com.genesis.resources.dto.UserCreateRequest;
+import com.genesis.resources.dto.UserDetailResponse;
+import com.genesis.resources.dto.UserPageResponse;
+import com.genesis.resources.dto.UserUpdateRequest;
+import com.genesis.resources.service.ReactiveUserService;
+import com.genesis.resources.utils.ETags;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux twin of UserController for the core /api/v1/users endpoints. Errors are mapped by the same
+ * GlobalExceptionHandler.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/users")
+public class ReactiveUserController
+{
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserController.class);
+
+    private final ReactiveUserService service;
+
+    private final int defaultPageSize;
+
+    private final int maxPageSize;
+
+    public ReactiveUserController(ReactiveUserService service,
+                                  @Value("${genesis.users.page.default-size:100}") int defaultPageSize,
+                                  @Value("${genesis.users.page.max-size:1000}") int maxPageSize)
+    {
+        this.service = service;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @PostMapping
+    public Mono<UserDetailResponse> create(@Valid @RequestBody UserCreateRequest req)
+    {
+        logger.info("HTTP POST /api/v1/users");
+        return service.create(req);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> get(@PathVariable long id,
+                                            @RequestParam(defaultValue = "false") boolean detail,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    {
+        logger.info("HTTP GET /api/v1/users/{}?detail={}", id, detail);
+
+        Mono<ResponseEntity<Object>> body = detail
+                ? service.getDetail(id).map(u -> ResponseEntity.ok().eTag(etag(u.getVersion(), true)).<Object>body(u))
+                : service.get(id).map(u -> ResponseEntity.ok().eTag(etag(u.getVersion(), false)).<Object>body(u));
+
+        if (ifNoneMatch == null)
+        {
+            return body;
+        }
+
+        // answer revalidations from the version alone before loading the row
+        return service.getVersion(id).flatMap(version ->
+        {
+            String etag = etag(version, detail);
+
+            return ETags.matchesAny(ifNoneMatch, etag)
+                    ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Object>build())
+                    : body;
+        });
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<UserPageResponse<?>>> getAll(@RequestParam(defaultValue = "false") boolean detail,
+                                                            @RequestParam(defaultValue = "0") long afterId,
+                                                            @RequestParam(required = false) Integer limit)
+    {
+        int size = limit == null ? defaultPageSize : Math.clamp(limit, 1, maxPageSize);
+
+        logger.info("HTTP GET /api/v1/users?detail={}&afterId={}&limit={}", detail, afterId, size);
+
+        Mono<? extends UserPageResponse<?>> page = detail ? service.getAllDetail(afterId, size) : service.getAll(afterId, size);
+
+        return page.map(p -> ResponseEntity.ok().eTag(ETags.forRepresentation(p.getEtag(), detail, null))
+                .<UserPageResponse<?>>body(p));
+    }
+
+    /**
+     * The whole table as a stream; with application/x-ndjson rows are written as the database delivers them
+     * and a slow client slows the query down instead of filling memory.
+     */
+    @GetMapping(params = "stream=true", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<?> stream(@RequestParam(defaultValue = "false") boolean detail)
+    {
+        logger.info("HTTP GET /api/v1/users?stream=true&detail={}", detail);
+
+        return detail ? service.streamAllDetail() : service.streamAll();
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Void>> update(@PathVariable long id,
+                                             @RequestBody UserUpdateRequest req,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+    {
+        logger.info("HTTP PUT /api/v1/users/{} If-Match={}", id, ifMatch);
+
+        return service.update(id, req, ifMatch == null ? null : ETags.parseIfMatch(ifMatch))
+                .map(version -> ResponseEntity.ok().eTag(ETags.forVersion(version)).<Void>build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> delete(@PathVariable long id)
+    {
+        logger.info("HTTP DELETE /api/v1/users/{}", id);
+        return service.delete(id);
+    }
+
+    private static String etag(long version, boolean detail)
+    {
+        return ETags.forRepresentation(ETags.forVersion(version), detail, null);
+    }
+}
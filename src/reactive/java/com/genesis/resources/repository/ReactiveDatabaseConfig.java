@@ -0,0 +1,46 @@
+package com.genesis.resources.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+
+/**
+ * R2DBC access for the reactive stack. It talks to shard 0 only, so it refuses to start when further
+ * shards are configured instead of writing users where the blocking stack would not find them.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveDatabaseConfig
+{
+
+    @Bean
+    public ConnectionFactory userConnectionFactory(@Value("${genesis.r2dbc.url}") String url,
+                                                   @Value("${genesis.r2dbc.username:${spring.datasource.username:}}") String username,
+                                                   @Value("${genesis.r2dbc.password:${spring.datasource.password:}}") String password,
+                                                   @Value("${genesis.shards.urls:}") List<String> shardUrls)
+    {
+        if (shardUrls.stream().anyMatch(u -> !u.isBlank()))
+        {
+            throw new IllegalStateException("The reactive stack supports a single Users database; unset genesis.shards.urls");
+        }
+
+        // an r2dbc:pool: URL wraps the driver in r2dbc-pool
+        return ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient userDatabaseClient(ConnectionFactory userConnectionFactory)
+    {
+        return DatabaseClient.create(userConnectionFactory);
+    }
+}
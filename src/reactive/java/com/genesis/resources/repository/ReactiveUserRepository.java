@@ -0,0 +1,165 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.exception.PersonIDAlreadyUsedException;
+import com.genesis.resources.model.User;
+import com.genesis.resources.utils.Uuids;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of UserRepository over R2DBC, for the single-database deployment. Same SQL and
+ * same snowflake IDs (always shard 0), so both stacks can serve the same table.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveUserRepository
+{
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserRepository.class);
+
+    private static final String COLUMNS = "ID, Name, Surname, PersonID, Uuid, CAST(Version AS BIGINT) AS Version";
+
+    private final DatabaseClient db;
+
+    private final UserIdGenerator ids;
+
+    public ReactiveUserRepository(DatabaseClient db, @Value("${genesis.shards.instances:1}") int instances,
+                                  @Value("${genesis.shards.worker-id:-1}") int workerId)
+    {
+        this.db = db;
+        this.ids = new UserIdGenerator(UserShards.workerId(instances, workerId));
+    }
+
+    public Mono<User> save(String name, String surname, String personID, UUID uuid)
+    {
+        logger.debug("Inserting user into DB: name='{}', surname='{}', personID={}, uuid={}",
+                name, surname, personID, uuid);
+
+        long id = ids.next(0);
+
+        return db.sql("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) "
+                        + "OUTPUT CAST(INSERTED.Version AS BIGINT) AS Version VALUES (:id, :name, :surname, :personID, :uuid)")
+                .bind("id", id)
+                .bind("name", name)
+                .bind("surname", surname)
+                .bind("personID", personID)
+                .bind("uuid", Uuids.toBytes(uuid))
+                .map(row -> new User(id, name, surname, personID, uuid, row.get("Version", Long.class)))
+                .one()
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> isPersonIDViolation(e) ? new PersonIDAlreadyUsedException(personID) : e);
+    }
+
+    public Mono<User> findById(long id)
+    {
+        logger.debug("Querying user ID={}", id);
+
+        return db.sql("SELECT " + COLUMNS + " FROM Users WHERE ID = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::mapRow)
+                .one();
+    }
+
+    public Flux<User> findPage(long afterId, int limit)
+    {
+        logger.debug("Querying users page afterId={}, limit={}", afterId, limit);
+
+        return db.sql("SELECT " + COLUMNS + " FROM Users WHERE ID > :afterId ORDER BY ID "
+                        + "OFFSET 0 ROWS FETCH NEXT :limit ROWS ONLY")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::mapRow)
+                .all();
+    }
+
+    /**
+     * Every user in ID order; rows are pulled from the driver as the subscriber requests them.
+     */
+    public Flux<User> findAll()
+    {
+        logger.debug("Streaming all users");
+
+        return db.sql("SELECT " + COLUMNS + " FROM Users ORDER BY ID")
+                .map(ReactiveUserRepository::mapRow)
+                .all();
+    }
+
+    public Mono<Long> findVersionById(long id)
+    {
+        return db.sql("SELECT CAST(Version AS BIGINT) AS Version FROM Users WHERE ID = :id")
+                .bind("id", id)
+                .map(row -> row.get("Version", Long.class))
+                .one();
+    }
+
+    /**
+     * Empty when no row matched the ID, or none of expectedVersions (when not null) is its current version.
+     */
+    public Mono<Long> update(long id, String name, String surname, List<Long> expectedVersions)
+    {
+        logger.debug("Updating user in DB id={}, name='{}', surname='{}', expectedVersions={}", id, name, surname, expectedVersions);
+
+        if (expectedVersions != null && expectedVersions.isEmpty())
+        {
+            return Mono.empty();
+        }
+
+        // null or empty keeps the stored value, as in UserRepository.update
+        String sql = "UPDATE Users SET Name = COALESCE(NULLIF(:name, ''), Name), Surname = COALESCE(NULLIF(:surname, ''), Surname)"
+                + " OUTPUT CAST(INSERTED.Version AS BIGINT) AS Version WHERE ID = :id"
+                + (expectedVersions != null ? " AND CAST(Version AS BIGINT) IN (:expectedVersions)" : "");
+
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql)
+                .bind("name", Parameter.fromOrEmpty(name, String.class))
+                .bind("surname", Parameter.fromOrEmpty(surname, String.class))
+                .bind("id", id);
+
+        if (expectedVersions != null)
+        {
+            // a collection bound to a named parameter is expanded into one placeholder per element
+            spec = spec.bind("expectedVersions", expectedVersions);
+        }
+
+        return spec.map(row -> row.get("Version", Long.class)).one();
+    }
+
+    public Mono<Boolean> delete(long id)
+    {
+        logger.debug("Deleting user from DB id={}", id);
+
+        return db.sql("DELETE FROM Users WHERE ID = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(deleted -> deleted > 0);
+    }
+
+    private static boolean isPersonIDViolation(DuplicateKeyException e)
+    {
+        String message = e.getMostSpecificCause().getMessage();
+
+        return message != null && message.contains(UserRepository.PERSON_ID_CONSTRAINT);
+    }
+
+    private static User mapRow(Readable row)
+    {
+        return new User(
+                row.get("ID", Long.class),
+                row.get("Name", String.class),
+                row.get("Surname", String.class),
+                row.get("PersonID", String.class),
+                Uuids.fromBytes(row.get("Uuid", byte[].class)),
+                row.get("Version", Long.class));
+    }
+}
@@ -0,0 +1,182 @@
+package com.genesis.resources.service;
+
+import com.genesis.resources.dto.UserCreateRequest;
+import com.genesis.resources.dto.UserDetailResponse;
+import com.genesis.resources.dto.UserPageResponse;
+import com.genesis.resources.dto.UserResponse;
+import com.genesis.resources.dto.UserUpdateRequest;
+import com.genesis.resources.exception.InvalidPersonIDException;
+import com.genesis.resources.exception.PersonIDAlreadyUsedException;
+import com.genesis.resources.exception.UserNotFoundException;
+import com.genesis.resources.exception.UserVersionMismatchException;
+import com.genesis.resources.repository.ReactiveUserRepository;
+import com.genesis.resources.utils.ETags;
+import com.genesis.resources.utils.PersonIDProvider;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * UserService for the reactive stack: the same checks, exceptions, responses and metrics, over
+ * ReactiveUserRepository.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService
+{
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    private final ReactiveUserRepository repository;
+
+    private final UsedPersonIDFilter usedFilter;
+
+    private final UserMetrics metrics;
+
+    private final UserChangeLog changeLog;
+
+    public ReactiveUserService(ReactiveUserRepository repository, UsedPersonIDFilter usedFilter, UserMetrics metrics,
+                               UserChangeLog changeLog)
+    {
+        this.repository = repository;
+        this.usedFilter = usedFilter;
+        this.metrics = metrics;
+        this.changeLog = changeLog;
+    }
+
+    public Mono<UserDetailResponse> create(UserCreateRequest req)
+    {
+        logger.info("Creating user: name='{}', surname='{}', personID={}",
+                req.getName(), req.getSurname(), req.getPersonID());
+
+        if (!PersonIDProvider.isValid(req.getPersonID()))
+        {
+            logger.warn("Create rejected – invalid personID={}", req.getPersonID());
+            metrics.countRejection("invalid_person_id");
+
+            return timed("create", Mono.error(new InvalidPersonIDException(req.getPersonID())));
+        }
+
+        return timed("create", repository
+                .save(req.getName(), req.getSurname(), req.getPersonID(), Uuids.timeOrdered())
+                .doOnError(PersonIDAlreadyUsedException.class, e ->
+                {
+                    logger.warn("Create rejected – personID already used={}", req.getPersonID());
+                    metrics.countRejection("person_id_already_used");
+                })
+                .doOnNext(u -> usedFilter.put(u.getPersonID()))
+                .flatMap(u -> offThread(() -> changeLog.created(u)).thenReturn(u))
+                .doOnNext(u -> logger.info("User created: id={}, uuid={}", u.getId(), u.getUuid()))
+                .map(UserService::toDetail));
+    }
+
+    public Mono<UserResponse> get(long id)
+    {
+        return timed("get", repository.findById(id)
+                .switchIfEmpty(notFound(id, "basic"))
+                .map(UserService::toBasic));
+    }
+
+    public Mono<UserDetailResponse> getDetail(long id)
+    {
+        return timed("getDetail", repository.findById(id)
+                .switchIfEmpty(notFound(id, "detail"))
+                .map(UserService::toDetail));
+    }
+
+    public Mono<Long> getVersion(long id)
+    {
+        return timed("getVersion", repository.findVersionById(id).switchIfEmpty(notFound(id, "version")));
+    }
+
+    public Mono<UserPageResponse<UserResponse>> getAll(long afterId, int limit)
+    {
+        return timed("getAll", repository.findPage(afterId, limit).collectList()
+                .map(users -> UserService.page(users, limit, UserService::toBasic)));
+    }
+
+    public Mono<UserPageResponse<UserDetailResponse>> getAllDetail(long afterId, int limit)
+    {
+        return timed("getAllDetail", repository.findPage(afterId, limit).collectList()
+                .map(users -> UserService.page(users, limit, UserService::toDetail)));
+    }
+
+    public Flux<UserResponse> streamAll()
+    {
+        return repository.findAll().map(UserService::toBasic);
+    }
+
+    public Flux<UserDetailResponse> streamAllDetail()
+    {
+        return repository.findAll().map(UserService::toDetail);
+    }
+
+    public Mono<Long> update(long id, UserUpdateRequest req, ETags.IfMatch ifMatch)
+    {
+        logger.info("Updating user id={}, ifMatch={}", id, ifMatch);
+
+        List<Long> expectedVersions = ifMatch == null || ifMatch.any() ? null : ifMatch.versions();
+
+        return timed("update", repository.update(id, req.getName(), req.getSurname(), expectedVersions)
+                // no row changed: either it is gone or no If-Match version is current; as in UserService.update,
+                // If-Match: * on a missing row is a failed precondition
+                .switchIfEmpty(Mono.defer(() -> ifMatch == null
+                        ? ReactiveUserService.<Long>notFound(id, "update")
+                        : ifMatch.any()
+                        ? Mono.<Long>error(new UserVersionMismatchException(id))
+                        : repository.findVersionById(id)
+                                .flatMap(current -> Mono.<Long>error(new UserVersionMismatchException(id)))
+                                .switchIfEmpty(notFound(id, "update"))))
+                .flatMap(version -> offThread(() -> changeLog.updated(id, req.getName(), req.getSurname(), version))
+                        .thenReturn(version))
+                .doOnNext(version -> logger.info("User updated id={}, version={}", id, version)));
+    }
+
+    public Mono<Void> delete(long id)
+    {
+        logger.warn("Deleting user id={}", id);
+
+        return timed("delete", repository.delete(id)
+                .flatMap(deleted -> deleted
+                        ? Mono.fromRunnable(usedFilter::recordDelete).then(offThread(() -> changeLog.deleted(id)))
+                        : ReactiveUserService.<Void>notFound(id, "delete"))
+                .doOnSuccess(ignored -> logger.info("User deleted id={}", id)));
+    }
+
+    // the same SERVICE_TIMER series @Timed gives UserService, from subscription to completion
+    private <T> Mono<T> timed(String operation, Mono<T> action)
+    {
+        return Mono.defer(() ->
+        {
+            Timer.Sample sample = metrics.startOperation();
+
+            return action
+                    .doOnSuccess(ignored -> metrics.stopOperation(sample, operation, null))
+                    .doOnError(e -> metrics.stopOperation(sample, operation, e));
+        });
+    }
+
+    private static <T> Mono<T> notFound(long id, String operation)
+    {
+        return Mono.defer(() ->
+        {
+            logger.warn("User not found id={} ({})", id, operation);
+
+            return Mono.error(new UserNotFoundException(id));
+        });
+    }
+
+    // the change log blocks writers while its buffer is full, which must not happen on an event loop
+    private static Mono<Void> offThread(Runnable action)
+    {
+        return Mono.fromRunnable(action).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
@@ -0,0 +1,86 @@
+package com.genesis.resources.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTest
+{
+
+    @Test
+    void doFilterRejectWith503WhenLimitAndQueueAreFull() throws Exception
+    {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0, 10, 1, registry);
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+
+        // the second request arrives while the first one still holds the only permit
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/1"), new MockHttpServletResponse(),
+                (req, res) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/2"), inner, (r, s) -> { }));
+
+        assertEquals(503, inner.getStatus());
+        assertEquals("1", inner.getHeader("Retry-After"));
+        assertEquals(1.0, registry.counter("genesis.backpressure.rejected").count());
+    }
+
+    @Test
+    void doFilterReleasePermitAfterRequest() throws Exception
+    {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0, 10, 1, new SimpleMeterRegistry());
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/1"), first, (req, res) -> { });
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/2"), second, (req, res) -> { });
+
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+    }
+
+    @Test
+    void doFilterHoldPermitUntilAsyncRequestCompletes() throws Exception
+    {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0, 10, 1, new SimpleMeterRegistry());
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/api/v1/users/export");
+        streaming.setAsyncSupported(true);
+
+        filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        MockHttpServletResponse during = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/export"), during, (req, res) -> { });
+
+        assertEquals(503, during.getStatus());
+
+        streaming.getAsyncContext().complete();
+
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/export"), after, (req, res) -> { });
+
+        assertEquals(200, after.getStatus());
+    }
+
+    @Test
+    void doFilterKeepServingPointReadsWhileExportsHoldStreamingPermits() throws Exception
+    {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0, 10, 2, new SimpleMeterRegistry());
+
+        for (String uri : new String[] {"/api/v1/users/export", "/api/v1/users"})
+        {
+            MockHttpServletRequest streaming = new MockHttpServletRequest("GET", uri);
+            streaming.setAsyncSupported(true);
+            streaming.setParameter("stream", "true");
+            filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        }
+
+        MockHttpServletResponse thirdExport = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/export"), thirdExport, (req, res) -> { });
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/1"), read, (req, res) -> { });
+
+        assertEquals(503, thirdExport.getStatus());
+        assertEquals(200, read.getStatus());
+    }
+}
@@ -0,0 +1,120 @@
+package com.genesis.resources.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest
+{
+    private final AtomicLong now = new AtomicLong();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // 1 token per second, bucket of 5, list calls cost 5
+    private final RateLimitFilter filter =
+            new RateLimitFilter(1, 5, 5, 600, 100, "X-API-Key", Set.of("reports:secret"), registry, now::get);
+
+    @Test
+    void doFilterRejectWith429OnceBucketIsEmpty() throws Exception
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(200, send("GET", "/api/v1/users/1", "10.0.0.1").getStatus());
+        }
+
+        MockHttpServletResponse rejected = send("GET", "/api/v1/users/1", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("genesis.ratelimit.throttled").tag("client", "ip").counter().count());
+    }
+
+    @Test
+    void doFilterChargeListCallsMore() throws Exception
+    {
+        assertEquals(200, send("GET", "/api/v1/users", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = send("GET", "/api/v1/users", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("5", rejected.getHeader("Retry-After"));
+
+        now.addAndGet(5_000_000_000L);
+
+        assertEquals(200, send("GET", "/api/v1/users", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void doFilterKeepSeparateBucketsPerClient() throws Exception
+    {
+        assertEquals(200, send("GET", "/api/v1/users", "10.0.0.1").getStatus());
+        assertEquals(429, send("GET", "/api/v1/users/1", "10.0.0.1").getStatus());
+
+        assertEquals(200, send("GET", "/api/v1/users/1", "10.0.0.2").getStatus());
+
+        assertEquals(200, sendWithKey("10.0.0.1", "secret").getStatus());
+    }
+
+    @Test
+    void doFilterCountThrottledPerKeyName() throws Exception
+    {
+        assertEquals(200, sendWithKey("10.0.0.1", "secret").getStatus());
+
+        for (int i = 0; i < 5; i++)
+        {
+            sendWithKey("10.0.0.1", "secret");
+        }
+
+        assertEquals(1.0, registry.get("genesis.ratelimit.throttled").tag("client", "reports").counter().count());
+        assertEquals(0.0, registry.get("genesis.ratelimit.throttled").tag("client", "ip").counter().count());
+    }
+
+    @Test
+    void doFilterKeepUnknownApiKeysOnAddressBucket() throws Exception
+    {
+        assertEquals(200, send("GET", "/api/v1/users", "10.0.0.1").getStatus());
+
+        // a fresh key per request must not open a fresh bucket
+        assertEquals(429, sendWithKey("10.0.0.1", "rotated-1").getStatus());
+        assertEquals(429, sendWithKey("10.0.0.1", "rotated-2").getStatus());
+    }
+
+    @Test
+    void costOfTreatBulkEndpointsAsLists()
+    {
+        assertEquals(5, filter.costOf(new MockHttpServletRequest("GET", "/api/v1/users/")));
+        assertEquals(5, filter.costOf(new MockHttpServletRequest("GET", "/api/v1/users/search")));
+        assertEquals(5, filter.costOf(new MockHttpServletRequest("POST", "/api/v1/users/batch")));
+        assertEquals(1, filter.costOf(new MockHttpServletRequest("POST", "/api/v1/users")));
+        assertEquals(1, filter.costOf(new MockHttpServletRequest("GET", "/api/v1/users/42")));
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddr) throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> { });
+
+        return response;
+    }
+
+    private MockHttpServletResponse sendWithKey(String remoteAddr, String apiKey) throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> { });
+
+        return response;
+    }
+}
@@ -0,0 +1,187 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.dto.UserSearchCursor;
+import com.genesis.resources.exception.PersonIDAlreadyUsedException;
+import com.genesis.resources.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class InMemoryUserRepository extends UserRepository
+{
+    private final ConcurrentSkipListMap<Long, User> users = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Long> personIDs = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public InMemoryUserRepository()
+    {
+        super(null, new UserCache(false, 0, 0), new UserLoadCoalescer(false), null, 0);
+    }
+
+    @Override
+    public User save(String name, String surname, String personID, UUID uuid)
+    {
+        long id = sequence.incrementAndGet();
+
+        if (personIDs.putIfAbsent(personID, id) != null)
+        {
+            throw new PersonIDAlreadyUsedException(personID);
+        }
+
+        User user = new User(id, name, surname, personID, uuid, 1L);
+        users.put(id, user);
+
+        return user;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> batch)
+    {
+        for (User u : batch)
+        {
+            User saved = save(u.getName(), u.getSurname(), u.getPersonID(), u.getUuid());
+            u.setId(saved.getId());
+            u.setVersion(saved.getVersion());
+        }
+
+        return List.of();
+    }
+
+    @Override
+    public int importChunk(List<User> chunk)
+    {
+        int inserted = 0;
+
+        for (User u : chunk)
+        {
+            if (!personIDs.containsKey(u.getPersonID()))
+            {
+                User saved = save(u.getName(), u.getSurname(), u.getPersonID(), u.getUuid());
+                u.setId(saved.getId());
+                u.setVersion(saved.getVersion());
+                inserted++;
+            }
+        }
+
+        return inserted;
+    }
+
+    @Override
+    public Optional<User> findById(long id)
+    {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public Map<Long, User> findByIds(Collection<Long> ids)
+    {
+        return ids.stream().distinct().filter(users::containsKey).collect(Collectors.toMap(id -> id, users::get));
+    }
+
+    @Override
+    public Optional<User> findByUuid(UUID uuid)
+    {
+        return users.values().stream().filter(u -> u.getUuid().equals(uuid)).findFirst();
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit)
+    {
+        return users.tailMap(afterId, false).values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public Optional<User> findById(long id, Set<UserField> fields)
+    {
+        return findById(id);
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit, Set<UserField> fields)
+    {
+        return findPage(afterId, limit);
+    }
+
+    @Override
+    public List<User> search(String name, String surname, String personID, UUID uuid, UserSearchCursor after,
+                             int limit)
+    {
+        // ID order throughout; resuming on the cursor's ID is enough for a stand-in
+        return users.tailMap(after.id(), false).values().stream()
+                .filter(u -> name == null || u.getName().startsWith(name))
+                .filter(u -> surname == null || u.getSurname().startsWith(surname))
+                .filter(u -> personID == null || u.getPersonID().equals(personID))
+                .filter(u -> uuid == null || u.getUuid().equals(uuid))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void forEach(Consumer<User> action)
+    {
+        users.values().forEach(action);
+    }
+
+    @Override
+    public void forEachPersonID(Consumer<String> action)
+    {
+        personIDs.keySet().forEach(action);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(long id)
+    {
+        return findById(id).map(User::getVersion);
+    }
+
+    @Override
+    public Optional<Long> update(long id, String name, String surname, List<Long> expectedVersions)
+    {
+        User current = users.get(id);
+
+        if (current == null || (expectedVersions != null && !expectedVersions.contains(current.getVersion())))
+        {
+            return Optional.empty();
+        }
+
+        User updated = new User(id,
+                name == null || name.isEmpty() ? current.getName() : name,
+                surname == null || surname.isEmpty() ? current.getSurname() : surname,
+                current.getPersonID(), current.getUuid(), current.getVersion() + 1);
+
+        return users.replace(id, current, updated) ? Optional.of(updated.getVersion()) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(long id)
+    {
+        User removed = users.remove(id);
+
+        if (removed == null)
+        {
+            return false;
+        }
+
+        personIDs.remove(removed.getPersonID());
+
+        return true;
+    }
+
+    @Override
+    public Set<String> findUsedPersonIDs(Collection<String> candidates)
+    {
+        return candidates.stream().filter(personIDs::containsKey).collect(Collectors.toSet());
+    }
+}
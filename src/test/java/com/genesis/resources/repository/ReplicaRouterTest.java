@@ -0,0 +1,149 @@
+package com.genesis.resources.repository;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRouterTest
+{
+    private DataSource primary;
+
+    private FlakyDataSource replica;
+
+    private ReplicaRouter router;
+
+    @BeforeEach
+    void setUp()
+    {
+        primary = database("primary");
+        replica = new FlakyDataSource(database("replica"));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        router.shutdown();
+        new JdbcTemplate(primary).execute("DROP TABLE Node");
+        new JdbcTemplate(replica).execute("DROP TABLE Node");
+    }
+
+    @Test
+    void readsGoToReplicaWritesStayOnPrimary()
+    {
+        router = new ReplicaRouter(primary, List.of(replica), 0, 0);
+
+        assertEquals("replica", node(router.reads()));
+
+        router.markWrite();
+
+        assertEquals("replica", node(router.reads()));
+    }
+
+    @Test
+    void readsStayOnPrimaryWithinReadYourWritesWindow()
+    {
+        router = new ReplicaRouter(primary, List.of(replica), 60_000, 0);
+
+        try (ReplicaRouter.Binding ignored = ReplicaRouter.bind("ip:10.0.0.1"))
+        {
+            assertEquals("replica", node(router.reads()));
+
+            router.markWrite();
+
+            assertEquals("primary", node(router.reads()));
+        }
+    }
+
+    @Test
+    void readsOfOtherClientsStayOnReplicaAfterWrite()
+    {
+        router = new ReplicaRouter(primary, List.of(replica), 60_000, 0);
+
+        try (ReplicaRouter.Binding ignored = ReplicaRouter.bind("ip:10.0.0.1"))
+        {
+            router.markWrite();
+        }
+
+        try (ReplicaRouter.Binding ignored = ReplicaRouter.bind("ip:10.0.0.2"))
+        {
+            assertEquals("replica", node(router.reads()));
+        }
+
+        assertEquals("replica", node(router.reads()));
+    }
+
+    @Test
+    void failOverToPrimaryAndRecoverAfterHealthCheck()
+    {
+        router = new ReplicaRouter(primary, List.of(replica), 0, 0);
+
+        replica.down = true;
+
+        assertEquals("primary", node(router.reads()));
+        assertEquals(0, router.healthyReplicas());
+
+        replica.down = false;
+        assertEquals("primary", node(router.reads()));
+
+        router.checkHealth();
+
+        assertEquals(1, router.healthyReplicas());
+        assertEquals("replica", node(router.reads()));
+    }
+
+    @Test
+    void noReplicasReadFromPrimary()
+    {
+        router = new ReplicaRouter(primary, List.of(), 0, 0);
+
+        assertEquals("primary", node(router.reads()));
+    }
+
+    private static String node(JdbcTemplate template)
+    {
+        return template.queryForObject("SELECT Name FROM Node", String.class);
+    }
+
+    private static DataSource database(String name)
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE Node (Name VARCHAR(16))");
+        template.update("INSERT INTO Node VALUES (?)", name);
+
+        return dataSource;
+    }
+
+    private static final class FlakyDataSource extends DelegatingDataSource
+    {
+        private volatile boolean down;
+
+        private FlakyDataSource(DataSource target)
+        {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException
+        {
+            if (down)
+            {
+                throw new SQLException("replica down");
+            }
+
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserCacheTest
+{
+
+    @Test
+    void getLoadOnceThenServeFromCache()
+    {
+        UserCache cache = new UserCache(true, 100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++)
+        {
+            cache.get(1L, id ->
+            {
+                loads.incrementAndGet();
+
+                return Optional.of(new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L));
+            });
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void getReloadAfterInvalidate()
+    {
+        UserCache cache = new UserCache(true, 100, 60);
+        cache.put(new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L));
+
+        cache.invalidate(1L);
+
+        Optional<User> result = cache.get(1L, id -> Optional.of(new User(id, "C", "D", "jXa4g3H7oPq2", new UUID(0, 1), 1L)));
+
+        assertEquals("C", result.orElseThrow().getName());
+    }
+
+    @Test
+    void getNotCacheLoadOverlappingInvalidate()
+    {
+        UserCache cache = new UserCache(true, 100, 60);
+
+        Optional<User> result = cache.get(1L, id ->
+        {
+            // the row is read, then a write lands before the loader returns
+            User before = new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+            cache.invalidate(id);
+
+            return Optional.of(before);
+        });
+
+        assertEquals("A", result.orElseThrow().getName());
+        assertTrue(cache.getIfPresent(1L).isEmpty());
+    }
+
+    @Test
+    void putNotCacheRowLoadedBeforeInvalidate()
+    {
+        UserCache cache = new UserCache(true, 100, 60);
+        long generation = cache.generation(1L);
+
+        cache.invalidate(1L);
+        cache.put(new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L), generation);
+
+        assertTrue(cache.getIfPresent(1L).isEmpty());
+
+        cache.put(new User(1L, "C", "D", "jXa4g3H7oPq2", new UUID(0, 1), 2L), cache.generation(1L));
+
+        assertEquals("C", cache.getIfPresent(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void getIfPresentHandOutIndependentCopies()
+    {
+        UserCache cache = new UserCache(true, 100, 60);
+        User user = new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        cache.put(user);
+
+        user.setName("changed after put");
+        User first = cache.getIfPresent(1L).orElseThrow();
+        first.setName("changed by a caller");
+        User second = cache.getIfPresent(1L).orElseThrow();
+
+        assertNotSame(first, second);
+        assertEquals("A", second.getName());
+    }
+
+    @Test
+    void getNotCacheMissingUser()
+    {
+        UserCache cache = new UserCache(true, 100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id ->
+        {
+            loads.incrementAndGet();
+
+            return Optional.empty();
+        });
+        Optional<User> result = cache.get(1L, id ->
+        {
+            loads.incrementAndGet();
+
+            return Optional.empty();
+        });
+
+        assertTrue(result.isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getAlwaysLoadWhenDisabled()
+    {
+        UserCache cache = new UserCache(false, 100, 60);
+        AtomicInteger loads = new AtomicInteger();
+        cache.put(new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L));
+
+        cache.get(1L, id ->
+        {
+            loads.incrementAndGet();
+
+            return Optional.of(new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L));
+        });
+
+        assertEquals(1, loads.get());
+    }
+}
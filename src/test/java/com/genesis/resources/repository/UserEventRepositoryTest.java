@@ -0,0 +1,128 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.dto.UserChangeEvent;
+import com.genesis.resources.dto.UserChangeType;
+import com.genesis.resources.utils.UserMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserEventRepositoryTest
+{
+    private static final long COMMIT_LAG_MS = 1000;
+
+    private JdbcTemplate database;
+
+    private UserEventRepository repository;
+
+    @BeforeEach
+    void setUp()
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:events;MODE=MSSQLServer;DB_CLOSE_DELAY=-1");
+
+        database = new JdbcTemplate(dataSource);
+        database.execute("""
+                CREATE TABLE UserEvents
+                (
+                    EventID    BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    Type       VARCHAR(16)  NOT NULL,
+                    UserID     BIGINT       NOT NULL,
+                    Name       VARCHAR(255) NULL,
+                    Surname    VARCHAR(255) NULL,
+                    PersonId   VARCHAR(12)  NULL,
+                    Uuid       BINARY(16)   NULL,
+                    Version    BIGINT       NULL,
+                    OccurredAt TIMESTAMP(3) NOT NULL,
+                    WrittenAt  TIMESTAMP(3) DEFAULT SYSUTCDATETIME() NOT NULL
+                )""");
+
+        UserShards shards = new UserShards(List.of(UserShards.Shard.of(0, database, database)), null, 0);
+        repository = new UserEventRepository(shards, new UserMetrics(new SimpleMeterRegistry()), 100, COMMIT_LAG_MS);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        database.execute("DROP TABLE UserEvents");
+    }
+
+    @Test
+    void forEachSinceReturnEventThatCommitsAfterALaterOne() throws SQLException, InterruptedException
+    {
+        try (Connection late = database.getDataSource().getConnection())
+        {
+            // takes EventID 1 but commits only after EventID 2, well within the append timeout (commitLag/2)
+            late.setAutoCommit(false);
+
+            try (PreparedStatement ps = late.prepareStatement(
+                    "INSERT INTO UserEvents (Type, UserID, OccurredAt) VALUES ('DELETED', 1, ?)"))
+            {
+                ps.setObject(1, LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
+                ps.executeUpdate();
+            }
+
+            repository.appendAll(List.of(deleted(2L)));
+
+            // EventID 2 is younger than the bound, so a reader cannot pass it and skip EventID 1 for good
+            assertTrue(since(0L).isEmpty());
+
+            Thread.sleep(COMMIT_LAG_MS / 4);
+            late.commit();
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        List<UserChangeEvent> events = since(0L);
+
+        while (events.isEmpty() && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(50);
+            events = since(0L);
+        }
+
+        assertEquals(List.of(1L, 2L), events.stream().map(UserChangeEvent::getId).toList());
+        assertEquals(List.of(1L, 2L), events.stream().map(UserChangeEvent::getOffset).toList());
+    }
+
+    @Test
+    void forEachSinceResumeAfterLastOffsetSeen() throws InterruptedException
+    {
+        repository.appendAll(List.of(deleted(1L), deleted(2L), deleted(3L)));
+        Thread.sleep(COMMIT_LAG_MS + 100);
+
+        List<UserChangeEvent> first = new ArrayList<>();
+        repository.forEachSince(0L, 2, first::add);
+        List<UserChangeEvent> rest = since(first.getLast().getOffset());
+
+        assertEquals(List.of(1L, 2L), first.stream().map(UserChangeEvent::getId).toList());
+        assertEquals(List.of(3L), rest.stream().map(UserChangeEvent::getId).toList());
+    }
+
+    private List<UserChangeEvent> since(long offset)
+    {
+        List<UserChangeEvent> events = new ArrayList<>();
+        repository.forEachSince(offset, 100, events::add);
+
+        return events;
+    }
+
+    private static UserChangeEvent deleted(long id)
+    {
+        return new UserChangeEvent(UserChangeType.DELETED, id, null, null, null, null, null, Instant.now());
+    }
+}
@@ -0,0 +1,47 @@
+package com.genesis.resources.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserIdGeneratorTest
+{
+
+    @Test
+    void nextEncodeShardAndGrowMonotonically()
+    {
+        UserIdGenerator ids = new UserIdGenerator(5);
+        Set<Long> seen = new HashSet<>();
+        long last = 0;
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            int shard = i % 3;
+            long id = ids.next(shard);
+
+            assertTrue(id > last);
+            assertEquals(shard, UserIdGenerator.shardOf(id));
+            assertTrue(seen.add(id));
+            last = id;
+        }
+    }
+
+    @Test
+    void shardOfMapLegacyIdentityValuesToShardZero()
+    {
+        assertEquals(0, UserIdGenerator.shardOf(1L));
+        assertEquals(0, UserIdGenerator.shardOf(70_000L));
+        assertEquals(0, UserIdGenerator.shardOf(5_000_000_000L));
+    }
+
+    @Test
+    void constructorRejectOutOfRangeWorker()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new UserIdGenerator(UserIdGenerator.MAX_WORKERS));
+    }
+}
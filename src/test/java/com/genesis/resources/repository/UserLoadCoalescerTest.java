@@ -0,0 +1,163 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserLoadCoalescerTest
+{
+
+    @Test
+    void loadShareOneQueryBetweenConcurrentCallers() throws Exception
+    {
+        UserLoadCoalescer coalescer = new UserLoadCoalescer(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        coalescer.bindTo(registry);
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        User user = new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            List<CompletableFuture<Optional<User>>> results = new ArrayList<>();
+
+            for (int i = 0; i < 10; i++)
+            {
+                results.add(CompletableFuture.supplyAsync(() -> coalescer.load(1L, id ->
+                {
+                    loads.incrementAndGet();
+                    await(release);
+
+                    return Optional.of(user);
+                }), executor));
+            }
+
+            // every caller but the one running the query is parked on it
+            while (registry.get("genesis.user.coalesce.loads").tag("result", "joined").functionCounter().count() < 9)
+            {
+                Thread.sleep(5);
+            }
+
+            release.countDown();
+
+            Set<User> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (CompletableFuture<Optional<User>> result : results)
+            {
+                User loaded = result.get(5, TimeUnit.SECONDS).orElseThrow();
+                assertEquals("A", loaded.getName());
+                assertEquals(1L, loaded.getVersion());
+                distinct.add(loaded);
+
+                // a caller modifying its copy must not show through to the others
+                loaded.setName("changed");
+            }
+
+            assertEquals(10, distinct.size());
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("genesis.user.coalesce.loads").tag("result", "executed").functionCounter().count());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void loadQueryAgainOnceFlightLanded()
+    {
+        UserLoadCoalescer coalescer = new UserLoadCoalescer(true);
+        AtomicInteger loads = new AtomicInteger();
+
+        coalescer.load(1L, id -> Optional.of(new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), loads.incrementAndGet())));
+        Optional<User> second = coalescer.load(1L, id -> Optional.of(new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), loads.incrementAndGet())));
+
+        assertEquals(2, loads.get());
+        assertEquals(2L, second.orElseThrow().getVersion());
+    }
+
+    @Test
+    void loadPassLeaderFailureToJoinedCallers() throws Exception
+    {
+        UserLoadCoalescer coalescer = new UserLoadCoalescer(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        coalescer.bindTo(registry);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            CompletableFuture<Optional<User>> leader = CompletableFuture.supplyAsync(() -> coalescer.load(1L, id ->
+            {
+                started.countDown();
+                await(release);
+
+                throw new IllegalStateException("database down");
+            }), executor);
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Optional<User>> follower = CompletableFuture.supplyAsync(
+                    () -> coalescer.load(1L, id -> Optional.empty()), executor);
+
+            while (registry.get("genesis.user.coalesce.loads").tag("result", "joined").functionCounter().count() < 1)
+            {
+                Thread.sleep(5);
+            }
+
+            release.countDown();
+
+            ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+
+            assertTrue(leaderError.getCause() instanceof IllegalStateException);
+            assertSame(leaderError.getCause(), followerError.getCause());
+        }
+
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void loadAlwaysQueryWhenDisabled()
+    {
+        UserLoadCoalescer coalescer = new UserLoadCoalescer(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        coalescer.load(1L, id -> Optional.of(new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), loads.incrementAndGet())));
+        coalescer.load(1L, id -> Optional.of(new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), loads.incrementAndGet())));
+
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
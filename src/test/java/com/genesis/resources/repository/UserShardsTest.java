@@ -0,0 +1,366 @@
+package com.genesis.resources.repository;
+
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.dto.UserSearchCursor;
+import com.genesis.resources.model.User;
+import com.genesis.resources.utils.UserMetrics;
+import com.genesis.resources.utils.Uuids;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserShardsTest
+{
+    private final List<JdbcTemplate> databases = new ArrayList<>();
+
+    private UserShards shards;
+
+    private UserRepository repository;
+
+    @BeforeEach
+    void setUp()
+    {
+        List<UserShards.Shard> all = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++)
+        {
+            JdbcTemplate template = database("shard" + i);
+            databases.add(template);
+            all.add(UserShards.Shard.of(i, template, template));
+        }
+
+        shards = new UserShards(all, null, 0);
+        repository = new UserRepository(shards, new UserCache(false, 0, 0), new UserLoadCoalescer(true), new UserMetrics(new SimpleMeterRegistry()), 100);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        databases.forEach(db -> db.execute("DROP TABLE Users"));
+    }
+
+    @Test
+    void findPageAndSearchReadOwnWriteFromPrimaryAcrossShards()
+    {
+        // shard 0 has a replica that never receives the insert below
+        JdbcTemplate replica = database("shard0-replica");
+        databases.add(replica);
+        ReplicaRouter router = new ReplicaRouter(databases.get(0).getDataSource(),
+                List.of(replica.getDataSource()), 60_000, 0);
+        UserShards replicated = new UserShards(List.of(
+                UserShards.Shard.of(0, databases.get(0), router.reads()),
+                UserShards.Shard.of(1, databases.get(1), databases.get(1))), router, 0);
+        UserRepository reads = new UserRepository(replicated, new UserCache(false, 0, 0),
+                new UserLoadCoalescer(true), new UserMetrics(new SimpleMeterRegistry()), 100);
+        UserShards.Shard first = replicated.all().getFirst();
+
+        try (ReplicaRouter.Binding ignored = ReplicaRouter.bind("ip:10.0.0.1"))
+        {
+            first.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    replicated.nextId(first), "Anna", "Novak", "p0", Uuids.toBytes(new UUID(0, 1)));
+            replicated.markWrite(first);
+
+            assertEquals(1, reads.findPage(0L, 10).size());
+            assertEquals(1, reads.search("Anna", null, null, null, UserSearchCursor.afterId(0L), 10).size());
+        } finally
+        {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void constructorRequireWorkerIdWithSeveralInstances()
+    {
+        JdbcTemplate primary = databases.getFirst();
+        ReplicaRouter router = new ReplicaRouter(primary.getDataSource(), List.of(), 0, 0);
+
+        assertThrows(IllegalStateException.class,
+                () -> new UserShards(primary, router, List.of(), "sa", "", 10, 2, -1));
+        assertEquals(1, new UserShards(primary, router, List.of(), "sa", "", 10, 1, -1).size());
+    }
+
+    @Test
+    void forIdRouteToShardEncodedInId()
+    {
+        UserShards.Shard second = shards.all().get(1);
+
+        assertSame(second, shards.forId(shards.nextId(second)));
+        assertSame(shards.all().getFirst(), shards.forId(42L));
+    }
+
+    @Test
+    void forPersonIDSpreadAcrossShardsStably()
+    {
+        int onFirst = 0;
+
+        for (int i = 0; i < 1000; i++)
+        {
+            String personID = "p" + i;
+            UserShards.Shard shard = shards.forPersonID(personID);
+
+            assertSame(shard, shards.forPersonID(personID));
+            onFirst += shard.index() == 0 ? 1 : 0;
+        }
+
+        assertTrue(onFirst > 400 && onFirst < 600, "unbalanced: " + onFirst);
+    }
+
+    @Test
+    void findPageMergeOrderedPagesFromEveryShard()
+    {
+        List<Long> ids = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++)
+        {
+            UserShards.Shard shard = shards.all().get(i % 2 == 0 ? 0 : 1);
+            long id = shards.nextId(shard);
+            ids.add(id);
+            shard.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    id, "N" + i, "S" + i, "p" + i, Uuids.toBytes(new UUID(0, i)));
+        }
+
+        List<User> first = repository.findPage(0L, 4);
+        List<User> second = repository.findPage(first.getLast().getId(), 4);
+        List<User> third = repository.findPage(second.getLast().getId(), 4);
+
+        assertEquals(ids.subList(0, 4), first.stream().map(User::getId).toList());
+        assertEquals(ids.subList(4, 8), second.stream().map(User::getId).toList());
+        assertEquals(ids.subList(8, 10), third.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findByIdsCollectUsersFromEveryShard()
+    {
+        List<Long> ids = new ArrayList<>();
+
+        for (int i = 0; i < 6; i++)
+        {
+            UserShards.Shard shard = shards.all().get(i % 2);
+            long id = shards.nextId(shard);
+            ids.add(id);
+            shard.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    id, "N" + i, "S" + i, "p" + i, Uuids.toBytes(new UUID(0, i)));
+        }
+
+        long missing = shards.nextId(shards.all().get(1));
+        long onUnknownShard = (1L << 45) | (5L << 16);
+        Map<Long, User> found = repository.findByIds(List.of(ids.get(5), ids.get(0), missing, ids.get(3), ids.get(0), onUnknownShard));
+
+        assertEquals(Set.of(ids.get(0), ids.get(3), ids.get(5)), found.keySet());
+        assertEquals("N3", found.get(ids.get(3)).getName());
+    }
+
+    @Test
+    void findPageWithFieldsReadOnlyRequestedColumns()
+    {
+        for (int i = 0; i < 4; i++)
+        {
+            UserShards.Shard shard = shards.all().get(i % 2);
+            shard.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    shards.nextId(shard), "N" + i, "S" + i, "p" + i, Uuids.toBytes(new UUID(0, i)));
+        }
+
+        List<User> page = repository.findPage(0L, 3, EnumSet.of(UserField.ID, UserField.NAME));
+
+        assertEquals(List.of("N0", "N1", "N2"), page.stream().map(User::getName).toList());
+        assertNull(page.getFirst().getSurname());
+        assertNull(page.getFirst().getUuid());
+        assertEquals(1L, page.getFirst().getVersion());
+
+        User one = repository.findById(page.get(1).getId(), EnumSet.of(UserField.UUID)).orElseThrow();
+
+        assertEquals(new UUID(0, 1), one.getUuid());
+        assertNull(one.getName());
+    }
+
+    @Test
+    void findByIdReadFromOwningShard()
+    {
+        UserShards.Shard second = shards.all().get(1);
+        long id = shards.nextId(second);
+        second.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                id, "Anna", "Novak", "jXa4g3H7oPq2", Uuids.toBytes(new UUID(0, 1)));
+
+        assertEquals("Anna", repository.findById(id).orElseThrow().getName());
+        assertNull(repository.findById(id + 1).orElse(null));
+    }
+
+    @Test
+    void findByUuidFindRowOnAnyShard()
+    {
+        UserShards.Shard second = shards.all().get(1);
+        UUID uuid = Uuids.timeOrdered();
+        second.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                shards.nextId(second), "Anna", "Novak", "jXa4g3H7oPq2", Uuids.toBytes(uuid));
+
+        User found = repository.findByUuid(uuid).orElseThrow();
+
+        assertEquals("Anna", found.getName());
+        assertEquals(uuid, found.getUuid());
+        assertTrue(repository.findByUuid(Uuids.timeOrdered()).isEmpty());
+    }
+
+    @Test
+    void searchMatchPrefixAcrossShardsInSurnameOrder()
+    {
+        String[] surnames = {"Novakova", "Novak", "Nov_k", "Dvorak", "Novak", "Novotny"};
+        String[] names = {"Eva", "Petr", "Jan", "Ota", "Adam", "Iva"};
+
+        for (int i = 0; i < surnames.length; i++)
+        {
+            UserShards.Shard shard = shards.all().get(i % 2);
+            shard.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    shards.nextId(shard), names[i], surnames[i], "p" + i, Uuids.toBytes(new UUID(0, i)));
+        }
+
+        List<User> first = repository.search(null, "Novak", null, null, UserSearchCursor.afterId(0L), 2);
+        User last = first.getLast();
+        List<User> second = repository.search(null, "Novak", null, null,
+                new UserSearchCursor(last.getId(), last.getName(), last.getSurname()), 2);
+
+        assertEquals(List.of("Adam", "Petr"), first.stream().map(User::getName).toList());
+        assertEquals(List.of("Eva"), second.stream().map(User::getName).toList());
+
+        // LIKE wildcards in the input are matched literally
+        assertEquals(List.of("Nov_k"), repository.search(null, "Nov_", null, null, UserSearchCursor.afterId(0L), 10)
+                .stream().map(User::getSurname).toList());
+        assertTrue(repository.search(null, "%", null, null, UserSearchCursor.afterId(0L), 10).isEmpty());
+    }
+
+    @Test
+    void searchByNameResumeAfterCursorWithEqualNames()
+    {
+        String[] names = {"Jan", "Jana", "Jan", "Jan"};
+        String[] surnames = {"Novak", "Adamova", "Adam", "Novak"};
+
+        for (int i = 0; i < names.length; i++)
+        {
+            UserShards.Shard shard = shards.all().get(i % 2);
+            shard.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    shards.nextId(shard), names[i], surnames[i], "p" + i, Uuids.toBytes(new UUID(0, i)));
+        }
+
+        List<String> seen = new ArrayList<>();
+        UserSearchCursor after = UserSearchCursor.afterId(0L);
+
+        for (List<User> page = repository.search("Jan", null, null, null, after, 1); !page.isEmpty();
+             page = repository.search("Jan", null, null, null, after, 1))
+        {
+            User u = page.getFirst();
+            seen.add(u.getName() + " " + u.getSurname());
+            after = new UserSearchCursor(u.getId(), u.getName(), u.getSurname());
+        }
+
+        assertEquals(List.of("Jan Adam", "Jan Novak", "Jan Novak", "Jana Adamova"), seen);
+    }
+
+    @Test
+    void searchBySurnamePageInByteOrderAcrossShards()
+    {
+        // a case-insensitive collation would tie the first two and could order them differently per shard
+        String[] surnames = {"Nowak", "Novak", "NoVak"};
+
+        for (int i = 0; i < surnames.length; i++)
+        {
+            UserShards.Shard shard = shards.all().get(i % 2);
+            shard.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                    shards.nextId(shard), "Eva", surnames[i], "p" + i, Uuids.toBytes(new UUID(0, i)));
+        }
+
+        List<String> seen = new ArrayList<>();
+        UserSearchCursor after = UserSearchCursor.afterId(0L);
+
+        for (List<User> page = repository.search(null, "No", null, null, after, 1); !page.isEmpty();
+             page = repository.search(null, "No", null, null, after, 1))
+        {
+            User u = page.getFirst();
+            seen.add(u.getSurname());
+            after = new UserSearchCursor(u.getId(), u.getName(), u.getSurname());
+        }
+
+        assertEquals(List.of("NoVak", "Novak", "Nowak"), seen);
+    }
+
+    @Test
+    void searchByPersonIDCombineWithOtherCriteria()
+    {
+        UserShards.Shard shard = shards.forPersonID("jXa4g3H7oPq2");
+        shard.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                shards.nextId(shard), "Anna", "Novak", "jXa4g3H7oPq2", Uuids.toBytes(new UUID(0, 1)));
+
+        UserSearchCursor start = UserSearchCursor.afterId(0L);
+
+        assertEquals(1, repository.search("An", null, "jXa4g3H7oPq2", null, start, 10).size());
+        assertTrue(repository.search("Eva", null, "jXa4g3H7oPq2", null, start, 10).isEmpty());
+        assertEquals("Anna", repository.search(null, null, null, new UUID(0, 1), start, 10).getFirst().getName());
+    }
+
+    @Test
+    void saveAllKeepSharesOfOtherShardsWhenOneRollsBack()
+    {
+        UserShards.Shard first = shards.all().get(0);
+        List<String> onFirst = new ArrayList<>();
+        List<String> onSecond = new ArrayList<>();
+
+        for (int i = 0; onFirst.size() < 2 || onSecond.size() < 2; i++)
+        {
+            (shards.forPersonID("p" + i) == first ? onFirst : onSecond).add("p" + i);
+        }
+
+        // taken after the caller checked, so the second shard's share hits the unique index
+        UserShards.Shard second = shards.all().get(1);
+        second.writes().update("INSERT INTO Users (ID, Name, Surname, PersonID, Uuid) VALUES (?, ?, ?, ?, ?)",
+                shards.nextId(second), "Taken", "Taken", onSecond.getFirst(), Uuids.toBytes(Uuids.timeOrdered()));
+
+        List<User> users = new ArrayList<>();
+
+        for (String personID : List.of(onFirst.get(0), onSecond.get(0), onFirst.get(1), onSecond.get(1)))
+        {
+            users.add(new User(0L, "N", "S", personID, Uuids.timeOrdered(), 0L));
+        }
+
+        List<User> rejected = repository.saveAll(users);
+
+        assertEquals(onSecond, rejected.stream().map(User::getPersonID).toList());
+        assertTrue(rejected.stream().allMatch(u -> u.getId() == 0L));
+        assertEquals(2, first.writes().queryForObject("SELECT COUNT(*) FROM Users", Integer.class));
+        assertEquals(1, second.writes().queryForObject("SELECT COUNT(*) FROM Users", Integer.class));
+        assertEquals(onFirst.getFirst(), repository.findById(users.getFirst().getId()).orElseThrow().getPersonID());
+    }
+
+    private static JdbcTemplate database(String name)
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("""
+                CREATE TABLE Users
+                (
+                    ID       BIGINT       PRIMARY KEY,
+                    Name     VARCHAR(255) NOT NULL,
+                    Surname  VARCHAR(255) NOT NULL,
+                    PersonId VARCHAR(12)  NOT NULL UNIQUE,
+                    Uuid     BINARY(16)   NOT NULL UNIQUE,
+                    Version  BIGINT       DEFAULT 1 NOT NULL
+                )""");
+
+        return template;
+    }
+}
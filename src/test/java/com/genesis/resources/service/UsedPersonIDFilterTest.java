@@ -0,0 +1,62 @@
+package com.genesis.resources.service;
+
+import com.genesis.resources.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class UsedPersonIDFilterTest
+{
+
+    @Mock
+    private UserRepository repository;
+
+    @Test
+    void mightContainReturnTrueBeforeFirstBuild()
+    {
+        UsedPersonIDFilter filter = new UsedPersonIDFilter(repository, true, 1000, 0.01);
+
+        assertTrue(filter.mightContain("jXa4g3H7oPq2"));
+    }
+
+    @Test
+    void mightContainReflectScannedAndPutPersonIDs()
+    {
+        doAnswer(invocation ->
+        {
+            Consumer<String> action = invocation.getArgument(0);
+            action.accept("jXa4g3H7oPq2");
+
+            return null;
+        }).when(repository).forEachPersonID(any());
+
+        UsedPersonIDFilter filter = new UsedPersonIDFilter(repository, true, 1000, 0.01);
+        filter.rebuild();
+        filter.put("yB9fR6tK0wLm");
+
+        assertTrue(filter.mightContain("jXa4g3H7oPq2"));
+        assertTrue(filter.mightContain("yB9fR6tK0wLm"));
+        assertFalse(filter.mightContain("cN1vZ8pE5sYx"));
+    }
+
+    @Test
+    void falsePositiveRateCountUnconfirmedHits()
+    {
+        UsedPersonIDFilter filter = new UsedPersonIDFilter(repository, true, 1000, 0.01);
+        filter.rebuild();
+
+        filter.recordLookup(4, 3);
+
+        assertEquals(0.25, filter.falsePositiveRate());
+    }
+}
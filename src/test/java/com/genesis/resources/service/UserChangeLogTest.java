@@ -0,0 +1,174 @@
+package com.genesis.resources.service;
+
+import com.genesis.resources.dto.UserChangeEvent;
+import com.genesis.resources.dto.UserChangeType;
+import com.genesis.resources.model.User;
+import com.genesis.resources.repository.UserEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeLogTest
+{
+
+    @Mock
+    private UserEventRepository repository;
+
+    @Test
+    void flushEveryEntryInOrderInBoundedBatches() throws InterruptedException
+    {
+        List<List<UserChangeEvent>> batches = recordBatches();
+        UserChangeLog log = new UserChangeLog(repository, 16, 4, 10, 1000, 3);
+
+        for (long id = 1; id <= 10; id++)
+        {
+            log.created(new User(id, "A", "B", "jXa4g3H7oPq2", new UUID(0, id), 1L));
+        }
+
+        log.updated(3L, "C", "", 2L);
+        log.deleted(4L);
+        log.shutdown();
+
+        List<UserChangeEvent> written = batches.stream().flatMap(List::stream).toList();
+
+        assertEquals(12, written.size());
+        assertTrue(batches.stream().allMatch(b -> b.size() <= 4));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 3L, 4L),
+                written.stream().map(UserChangeEvent::getId).toList());
+
+        UserChangeEvent update = written.get(10);
+        assertEquals(UserChangeType.UPDATED, update.getType());
+        assertEquals("C", update.getName());
+        assertNull(update.getSurname());
+        assertEquals(UserChangeType.DELETED, written.get(11).getType());
+    }
+
+    @Test
+    void retryBatchAfterFailedFlush() throws InterruptedException
+    {
+        AtomicInteger attempts = new AtomicInteger();
+        List<UserChangeEvent> written = new CopyOnWriteArrayList<>();
+        doAnswer(invocation ->
+        {
+            if (attempts.incrementAndGet() == 1)
+            {
+                throw new IllegalStateException("database down");
+            }
+
+            written.addAll(invocation.getArgument(0));
+
+            return null;
+        }).when(repository).appendAll(anyList());
+
+        UserChangeLog log = new UserChangeLog(repository, 16, 4, 10, 1000, 3);
+        log.deleted(1L);
+
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (written.isEmpty() && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+
+        log.shutdown();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    void dropBatchAfterMaxAttempts() throws InterruptedException
+    {
+        AtomicInteger attempts = new AtomicInteger();
+        List<UserChangeEvent> written = new CopyOnWriteArrayList<>();
+        doAnswer(invocation ->
+        {
+            List<UserChangeEvent> batch = invocation.getArgument(0);
+
+            if (batch.getFirst().getId() == 1L)
+            {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("database down");
+            }
+
+            written.addAll(batch);
+
+            return null;
+        }).when(repository).appendAll(anyList());
+
+        UserChangeLog log = new UserChangeLog(repository, 16, 1, 10, 1000, 2);
+        log.deleted(1L);
+        log.deleted(2L);
+
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (written.isEmpty() && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+
+        log.shutdown();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1L, log.dropped());
+        assertEquals(List.of(2L), written.stream().map(UserChangeEvent::getId).toList());
+    }
+
+    @Test
+    void dropEntryWhenBufferStaysFull() throws InterruptedException
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation ->
+        {
+            release.await();
+
+            return null;
+        }).when(repository).appendAll(anyList());
+
+        UserChangeLog log = new UserChangeLog(repository, 1, 1, 10, 10, 3);
+        log.deleted(1L);
+
+        long deadline = System.currentTimeMillis() + 5000;
+
+        // the flusher holds entry 1; entry 2 fills the buffer and entry 3 finds no room
+        while (log.pending() > 0 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+
+        log.deleted(2L);
+        log.deleted(3L);
+        release.countDown();
+        log.shutdown();
+
+        assertEquals(1L, log.dropped());
+    }
+
+    private List<List<UserChangeEvent>> recordBatches()
+    {
+        List<List<UserChangeEvent>> batches = new ArrayList<>();
+        doAnswer(invocation ->
+        {
+            batches.add(List.copyOf(invocation.getArgument(0)));
+
+            return null;
+        }).when(repository).appendAll(anyList());
+
+        return batches;
+    }
+}
@@ -1,36 +1,74 @@
 package com.genesis.resources.service;
 
+import com.genesis.resources.dto.UserBatchItemResponse;
+import com.genesis.resources.dto.UserBatchItemStatus;
 import com.genesis.resources.dto.UserCreateRequest;
 import com.genesis.resources.dto.UserDetailResponse;
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.dto.UserFieldsResponse;
+import com.genesis.resources.dto.UserImportProgress;
+import com.genesis.resources.dto.UserImportRowError;
+import com.genesis.resources.dto.UserImportStatus;
+import com.genesis.resources.dto.UserLookupItemResponse;
+import com.genesis.resources.dto.UserLookupItemStatus;
+import com.genesis.resources.dto.UserPageResponse;
 import com.genesis.resources.dto.UserResponse;
+import com.genesis.resources.dto.UserSearchCursor;
+import com.genesis.resources.dto.UserSearchRequest;
 import com.genesis.resources.dto.UserUpdateRequest;
+import com.genesis.resources.exception.IdempotencyKeyReusedException;
 import com.genesis.resources.exception.InvalidPersonIDException;
 import com.genesis.resources.exception.PersonIDAlreadyUsedException;
 import com.genesis.resources.exception.UserNotFoundException;
+import com.genesis.resources.exception.UserVersionMismatchException;
 import com.genesis.resources.model.User;
 import com.genesis.resources.repository.UserRepository;
+import com.genesis.resources.utils.ETags;
 import com.genesis.resources.utils.PersonIDProvider;
+import com.genesis.resources.utils.UserFileFormat;
+import com.genesis.resources.utils.UserImportReader;
+import com.genesis.resources.utils.UserMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,6 +79,20 @@ class UserServiceTest
     @Mock
     private UserRepository repository;
 
+    @Mock
+    private UsedPersonIDFilter usedFilter;
+
+    @Mock
+    private UserChangeLog changeLog;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UserMetrics metrics = new UserMetrics(meterRegistry);
+
+    @Spy
+    private UserIdempotencyStore idempotency = new UserIdempotencyStore(100, 60);
+
     @InjectMocks
     private UserService service;
 
@@ -66,8 +118,8 @@ class UserServiceTest
 
         assertThrows(InvalidPersonIDException.class, () -> service.create(req));
 
-        verify(repository, never()).existsByPersonID(anyString());
         verify(repository, never()).save(any(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.counter("genesis.user.rejections", "reason", "invalid_person_id").count());
     }
 
     @Test
@@ -78,13 +130,13 @@ class UserServiceTest
         req.setSurname("Doe");
         req.setPersonID("jXa4g3H7oPq2");
 
-        when(repository.existsByPersonID(req.getPersonID())).thenReturn(true);
+        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), any(UUID.class)))
+                .thenThrow(new PersonIDAlreadyUsedException("jXa4g3H7oPq2"));
 
         assertThrows(PersonIDAlreadyUsedException.class,
                 () -> service.create(req));
 
-        verify(repository).existsByPersonID("jXa4g3H7oPq2");
-        verify(repository, never()).save(any(), any(), any(), any());
+        verify(repository).save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), argThat(uuid -> uuid.version() == 7));
     }
 
     @Test
@@ -95,27 +147,232 @@ class UserServiceTest
         req.setSurname("Doe");
         req.setPersonID("jXa4g3H7oPq2");
 
-        when(repository.existsByPersonID(req.getPersonID())).thenReturn(false);
-        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), anyString()))
-                .thenReturn(10L);
+        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), any(UUID.class)))
+                .thenReturn(new User(10L, "John", "Doe", "jXa4g3H7oPq2", new UUID(0, 10), 1L));
 
         UserDetailResponse response = service.create(req);
 
         assertEquals(10L, response.getId());
+        assertEquals(1L, response.getVersion());
         assertEquals("John", response.getName());
         assertEquals("Doe", response.getSurname());
         assertEquals("jXa4g3H7oPq2", response.getPersonID());
         assertNotNull(response.getUuid());
-        assertFalse(response.getUuid().isBlank());
 
-        verify(repository).existsByPersonID("jXa4g3H7oPq2");
-        verify(repository).save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), anyString());
+        verify(repository).save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), argThat(uuid -> uuid.version() == 7));
+        verify(changeLog).created(any(User.class));
+    }
+
+    @Test
+    void createReplayResponseForRepeatedIdempotencyKey()
+    {
+        UserCreateRequest req = createRequest("John", "Doe", "jXa4g3H7oPq2");
+
+        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), any(UUID.class)))
+                .thenReturn(new User(10L, "John", "Doe", "jXa4g3H7oPq2", new UUID(0, 10), 1L));
+
+        UserDetailResponse first = service.create(req, "key-1");
+        UserDetailResponse retry = service.create(createRequest("John", "Doe", "jXa4g3H7oPq2"), "key-1");
+
+        assertSame(first, retry);
+        verify(repository, times(1)).save(any(), any(), any(), any());
+        verify(changeLog, times(1)).created(any(User.class));
+    }
+
+    @Test
+    void createThrowIdempotencyKeyReusedForDifferentRequest()
+    {
+        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), any(UUID.class)))
+                .thenReturn(new User(10L, "John", "Doe", "jXa4g3H7oPq2", new UUID(0, 10), 1L));
+
+        service.create(createRequest("John", "Doe", "jXa4g3H7oPq2"), "key-1");
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> service.create(createRequest("Jane", "Doe", "jXa4g3H7oPq2"), "key-1"));
+        verify(repository, times(1)).save(any(), any(), any(), any());
+    }
+
+    @Test
+    void createRunAgainAfterFailedIdempotentAttempt()
+    {
+        when(repository.save(eq("John"), eq("Doe"), eq("jXa4g3H7oPq2"), any(UUID.class)))
+                .thenThrow(new CannotGetJdbcConnectionException("pool exhausted"))
+                .thenReturn(new User(10L, "John", "Doe", "jXa4g3H7oPq2", new UUID(0, 10), 1L));
+
+        assertThrows(CannotGetJdbcConnectionException.class,
+                () -> service.create(createRequest("John", "Doe", "jXa4g3H7oPq2"), "key-1"));
+
+        assertEquals(10L, service.create(createRequest("John", "Doe", "jXa4g3H7oPq2"), "key-1").getId());
+        verify(repository, times(2)).save(any(), any(), any(), any());
+    }
+
+    @Test
+    void createBatchReturnPerItemStatus()
+    {
+        List<UserCreateRequest> reqs = List.of(
+                createRequest("John", "Doe", "jXa4g3H7oPq2"),
+                createRequest("Jane", "Doe", "XXXXXXXXXXXX"),
+                createRequest("Jim", "Doe", "jXa4g3H7oPq2"),
+                createRequest("Jill", "Doe", "yB9fR6tK0wLm"));
+
+        when(usedFilter.mightContain(anyString())).thenReturn(true);
+        when(repository.findUsedPersonIDs(anyCollection())).thenReturn(Set.of("yB9fR6tK0wLm"));
+        doAnswer(invocation ->
+        {
+            List<User> users = invocation.getArgument(0);
+            users.getFirst().setId(42L);
+
+            return List.of();
+        }).when(repository).saveAll(anyList());
+
+        List<UserBatchItemResponse> result = service.createBatch(reqs);
+
+        assertEquals(UserBatchItemStatus.CREATED, result.get(0).getStatus());
+        assertEquals(42L, result.get(0).getUser().getId());
+        assertEquals(UserBatchItemStatus.INVALID_PERSON_ID, result.get(1).getStatus());
+        assertEquals(UserBatchItemStatus.DUPLICATE_IN_BATCH, result.get(2).getStatus());
+        assertEquals(UserBatchItemStatus.PERSON_ID_ALREADY_USED, result.get(3).getStatus());
+        assertNull(result.get(3).getUser());
+        verify(usedFilter).put("jXa4g3H7oPq2");
+    }
+
+    @Test
+    void createBatchSkipDbCheckFilterRulesOutAllPersonIDs()
+    {
+        List<UserCreateRequest> reqs = List.of(createRequest("John", "Doe", "jXa4g3H7oPq2"));
+
+        when(usedFilter.mightContain("jXa4g3H7oPq2")).thenReturn(false);
+
+        List<UserBatchItemResponse> result = service.createBatch(reqs);
+
+        assertEquals(UserBatchItemStatus.CREATED, result.getFirst().getStatus());
+        verify(repository, never()).findUsedPersonIDs(anyCollection());
+        verify(repository).saveAll(anyList());
+    }
+
+    @Test
+    void createBatchRetryOnlyUsersOfRolledBackShard()
+    {
+        List<UserCreateRequest> reqs = List.of(
+                createRequest("John", "Doe", "jXa4g3H7oPq2"),
+                createRequest("Jill", "Doe", "yB9fR6tK0wLm"));
+
+        when(usedFilter.mightContain(anyString())).thenReturn(false);
+        when(repository.findUsedPersonIDs(anyCollection())).thenReturn(Set.of("yB9fR6tK0wLm"));
+        when(repository.saveAll(anyList())).thenAnswer(invocation ->
+        {
+            List<User> users = invocation.getArgument(0);
+            users.getFirst().setId(42L);
+
+            return users.subList(1, users.size());
+        });
+
+        List<UserBatchItemResponse> result = service.createBatch(reqs);
+
+        assertEquals(UserBatchItemStatus.CREATED, result.get(0).getStatus());
+        assertEquals(42L, result.get(0).getUser().getId());
+        assertEquals(UserBatchItemStatus.PERSON_ID_ALREADY_USED, result.get(1).getStatus());
+        verify(repository).findUsedPersonIDs(List.of("yB9fR6tK0wLm"));
+        verify(repository).saveAll(anyList());
+        verify(usedFilter).put("jXa4g3H7oPq2");
+        verify(changeLog).created(any(User.class));
+    }
+
+    @Test
+    void importUsersReportRowErrorsAndProgressPerChunk() throws IOException
+    {
+        String csv = """
+                Name,Surname,PersonID
+                John,Doe,jXa4g3H7oPq2
+                Jane,Doe,XXXXXXXXXXXX
+                Jim,Doe,jXa4g3H7oPq2
+                Jill,Doe,yB9fR6tK0wLm
+                """;
+
+        when(repository.importChunk(anyList())).thenAnswer(invocation ->
+        {
+            List<User> users = invocation.getArgument(0);
+
+            if (!users.getFirst().getPersonID().equals("jXa4g3H7oPq2"))
+            {
+                return 0;
+            }
+
+            users.getFirst().setId(42L);
+
+            return 1;
+        });
+
+        List<UserImportRowError> errors = new ArrayList<>();
+        List<UserImportProgress> progress = new ArrayList<>();
+
+        try (UserImportReader reader = new UserImportReader(UserFileFormat.CSV, null,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))
+        {
+            service.importUsers(reader, 2, errors::add, progress::add);
+        }
+
+        assertEquals(List.of(3L, 4L, 5L), errors.stream().map(UserImportRowError::getLine).toList());
+        assertEquals(List.of(UserImportStatus.INVALID_PERSON_ID, UserImportStatus.DUPLICATE_IN_FILE,
+                        UserImportStatus.PERSON_ID_ALREADY_USED),
+                errors.stream().map(UserImportRowError::getStatus).toList());
+
+        assertEquals(2, progress.size());
+        assertEquals(3, progress.get(0).getRead());
+        assertFalse(progress.get(0).isDone());
+        assertEquals(4, progress.get(1).getRead());
+        assertEquals(1, progress.get(1).getCreated());
+        assertEquals(3, progress.get(1).getRejected());
+        assertTrue(progress.get(1).isDone());
+        verify(usedFilter).put("jXa4g3H7oPq2");
+    }
+
+    @Test
+    void importUsersReportRepeatFromEarlierChunkAsAlreadyUsed() throws IOException
+    {
+        String csv = """
+                Name,Surname,PersonID
+                John,Doe,jXa4g3H7oPq2
+                Jill,Doe,yB9fR6tK0wLm
+                Jim,Doe,jXa4g3H7oPq2
+                """;
+
+        // the table's unique index: a PersonID stored by an earlier chunk is skipped
+        Set<String> stored = new HashSet<>();
+        when(repository.importChunk(anyList())).thenAnswer(invocation ->
+        {
+            List<User> users = invocation.getArgument(0);
+            int inserted = 0;
+
+            for (User u : users)
+            {
+                if (stored.add(u.getPersonID()))
+                {
+                    u.setId(stored.size());
+                    inserted++;
+                }
+            }
+
+            return inserted;
+        });
+
+        List<UserImportRowError> errors = new ArrayList<>();
+
+        try (UserImportReader reader = new UserImportReader(UserFileFormat.CSV, null,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))
+        {
+            service.importUsers(reader, 2, errors::add, progress -> { });
+        }
+
+        assertEquals(1, errors.size());
+        assertEquals(4L, errors.getFirst().getLine());
+        assertEquals(UserImportStatus.PERSON_ID_ALREADY_USED, errors.getFirst().getStatus());
     }
 
     @Test
     void getReturnResponseUserExists()
     {
-        User user = new User(1L, "Alice", "Smith", "jXa4g3H7oPq2", "uuid-123");
+        User user = new User(1L, "Alice", "Smith", "jXa4g3H7oPq2", new UUID(0, 123), 1L);
         when(repository.findById(1L)).thenReturn(Optional.of(user));
 
         var response = service.get(1L);
@@ -137,7 +394,7 @@ class UserServiceTest
     @Test
     void getDetailReturnDetailResponseUserExists()
     {
-        User user = new User(5L, "Bob", "Brown", "jXa4g3H7oPq2", "uuid-xyz");
+        User user = new User(5L, "Bob", "Brown", "jXa4g3H7oPq2", new UUID(0, 99), 1L);
         when(repository.findById(5L)).thenReturn(Optional.of(user));
 
         UserDetailResponse response = service.getDetail(5L);
@@ -146,83 +403,224 @@ class UserServiceTest
         assertEquals("Bob", response.getName());
         assertEquals("Brown", response.getSurname());
         assertEquals("jXa4g3H7oPq2", response.getPersonID());
-        assertEquals("uuid-xyz", response.getUuid());
+        assertEquals(new UUID(0, 99), response.getUuid());
     }
 
     @Test
-    void updateCallRepositoryUpdateWithMergedValues()
+    void updatePassRequestValuesToSingleStatementUpdate()
     {
-        User existing = new User(3L, "OldName", "OldSurname", "jXa4g3H7oPq2", "uuid-123");
-        when(repository.findById(3L)).thenReturn(Optional.of(existing));
-
         UserUpdateRequest req = new UserUpdateRequest();
         req.setName("NewName");
         req.setSurname(null);
 
-        service.update(3L, req);
+        when(repository.update(3L, "NewName", null, null)).thenReturn(Optional.of(2L));
+
+        assertEquals(2L, service.update(3L, req, null));
+
+        verify(repository).update(3L, "NewName", null, null);
+        verify(repository, never()).findById(anyLong());
+    }
+
+    @Test
+    void updateThrowVersionMismatchWhenExpectedVersionIsStale()
+    {
+        when(repository.update(3L, "NewName", null, List.of(1L))).thenReturn(Optional.empty());
+        when(repository.findVersionById(3L)).thenReturn(Optional.of(2L));
+
+        UserUpdateRequest req = new UserUpdateRequest();
+        req.setName("NewName");
 
-        verify(repository).update(3L, "NewName", "OldSurname");
+        assertThrows(UserVersionMismatchException.class,
+                () -> service.update(3L, req, ETags.parseIfMatch("\"1\"")));
+    }
+
+    @Test
+    void updateMatchAnyVersionOfIfMatchList()
+    {
+        when(repository.update(3L, "NewName", null, List.of(1L, 2L))).thenReturn(Optional.of(3L));
+
+        UserUpdateRequest req = new UserUpdateRequest();
+        req.setName("NewName");
+
+        assertEquals(3L, service.update(3L, req, ETags.parseIfMatch("\"1\", \"2\"")));
+    }
+
+    @Test
+    void updateThrowVersionMismatchForWildcardOnMissingUser()
+    {
+        when(repository.update(3L, "NewName", null, null)).thenReturn(Optional.empty());
+
+        UserUpdateRequest req = new UserUpdateRequest();
+        req.setName("NewName");
+
+        assertThrows(UserVersionMismatchException.class,
+                () -> service.update(3L, req, ETags.parseIfMatch("*")));
+        verify(repository, never()).findVersionById(3L);
     }
 
     @Test
     void updateThrowUserNotFoundUserDoesNotExist()
     {
-        when(repository.findById(3L)).thenReturn(Optional.empty());
+        when(repository.update(3L, "NewName", null, null)).thenReturn(Optional.empty());
 
         UserUpdateRequest req = new UserUpdateRequest();
         req.setName("NewName");
 
         assertThrows(UserNotFoundException.class,
-                () -> service.update(3L, req));
+                () -> service.update(3L, req, null));
     }
 
     @Test
     void deleteDeleteWhenUserExists()
     {
-        User existing = new User(7L, "John", "Doe", "jXa4g3H7oPq2", "uuid-xyz");
-        when(repository.findById(7L)).thenReturn(Optional.of(existing));
+        when(repository.delete(7L)).thenReturn(true);
 
         service.delete(7L);
 
         verify(repository).delete(7L);
+        verify(repository, never()).findById(anyLong());
+        verify(usedFilter).recordDelete();
+        verify(changeLog).deleted(7L);
     }
 
     @Test
     void deleteThrowUserNotFoundWhenUserDoesNotExist()
     {
-        when(repository.findById(7L)).thenReturn(Optional.empty());
+        when(repository.delete(7L)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 () -> service.delete(7L));
 
-        verify(repository, never()).delete(anyLong());
+        verify(usedFilter, never()).recordDelete();
+    }
+
+    @Test
+    void getByUuidThrowUserNotFoundUserDoesNotExist()
+    {
+        UUID uuid = new UUID(0, 7);
+        when(repository.findByUuid(uuid)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> service.getByUuid(uuid));
     }
 
     @Test
     void getAllReturnListOfUsers()
     {
-        User u1 = new User(1L, "A", "B", "jXa4g3H7oPq2", "uuid-1");
-        User u2 = new User(2L, "C", "D", "yB9fR6tK0wLm", "uuid-2");
-        when(repository.findAll()).thenReturn(java.util.List.of(u1, u2));
+        User u1 = new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        User u2 = new User(2L, "C", "D", "yB9fR6tK0wLm", new UUID(0, 2), 1L);
+        when(repository.findPage(0L, 10)).thenReturn(java.util.List.of(u1, u2));
 
-        List<UserResponse> result = service.getAll();
+        UserPageResponse<UserResponse> result = service.getAll(0L, 10);
 
-        assertEquals(2, result.size());
-        assertEquals("A", result.get(0).getName());
-        assertEquals("C", result.get(1).getName());
+        assertEquals(2, result.getItems().size());
+        assertEquals("A", result.getItems().get(0).getName());
+        assertEquals("C", result.getItems().get(1).getName());
+        assertNull(result.getNextAfterId());
     }
 
     @Test
     void getAllDetailReturnDetailList()
     {
-        User u1 = new User(1L, "A", "B", "jXa4g3H7oPq2", "uuid-1");
-        User u2 = new User(2L, "C", "D", "yB9fR6tK0wLm", "uuid-2");
-        when(repository.findAll()).thenReturn(java.util.List.of(u1, u2));
+        User u1 = new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        User u2 = new User(2L, "C", "D", "yB9fR6tK0wLm", new UUID(0, 2), 1L);
+        when(repository.findPage(0L, 10)).thenReturn(java.util.List.of(u1, u2));
+
+        UserPageResponse<UserDetailResponse> result = service.getAllDetail(0L, 10);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals("jXa4g3H7oPq2", result.getItems().get(0).getPersonID());
+        assertEquals(new UUID(0, 2), result.getItems().get(1).getUuid());
+    }
+
+    @Test
+    void getAllFieldsReturnOnlyRequestedFieldsInOrder()
+    {
+        Set<UserField> fields = UserField.parse("uuid, id");
+        User u1 = new User(1L, null, null, null, new UUID(0, 1), 3L);
+        when(repository.findPage(0L, 10, fields)).thenReturn(List.of(u1));
+
+        UserPageResponse<UserFieldsResponse> result = service.getAllFields(0L, 10, fields);
+
+        assertEquals(List.of("id", "uuid"), List.copyOf(result.getItems().getFirst().getFields().keySet()));
+        assertEquals(new UUID(0, 1), result.getItems().getFirst().getFields().get("uuid"));
+        assertEquals(3L, result.getItems().getFirst().getVersion());
+        assertNull(UserField.parse("id,password"));
+    }
 
-        List<UserDetailResponse> result = service.getAllDetail();
+    @Test
+    void lookupReportMissingIdsPerItemInRequestOrder()
+    {
+        User u1 = new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        User u3 = new User(3L, "C", "D", "yB9fR6tK0wLm", new UUID(0, 3), 2L);
+        when(repository.findByIds(List.of(3L, 2L, 1L))).thenReturn(Map.of(1L, u1, 3L, u3));
+
+        List<UserLookupItemResponse<UserDetailResponse>> result = service.lookupDetail(List.of(3L, 2L, 1L));
+
+        assertEquals(List.of(3L, 2L, 1L), result.stream().map(UserLookupItemResponse::getId).toList());
+        assertEquals(UserLookupItemStatus.FOUND, result.get(0).getStatus());
+        assertEquals("yB9fR6tK0wLm", result.get(0).getUser().getPersonID());
+        assertEquals(UserLookupItemStatus.NOT_FOUND, result.get(1).getStatus());
+        assertNull(result.get(1).getUser());
+        assertEquals("A", result.get(2).getUser().getName());
+    }
+
+    @Test
+    void getAllReturnNextAfterIdPageIsFull()
+    {
+        User u1 = new User(4L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        User u2 = new User(9L, "C", "D", "yB9fR6tK0wLm", new UUID(0, 2), 1L);
+        when(repository.findPage(3L, 2)).thenReturn(java.util.List.of(u1, u2));
+
+        UserPageResponse<UserResponse> result = service.getAll(3L, 2);
+
+        assertEquals(9L, result.getNextAfterId());
+    }
+
+    @Test
+    void searchPassCriteriaAndReturnNextCursorPageIsFull()
+    {
+        UserSearchCursor after = new UserSearchCursor(3L, "Anna", "Ada");
+        User u1 = new User(4L, "Anna", "Novak", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        User u2 = new User(9L, "Anna", "Novakova", "yB9fR6tK0wLm", new UUID(0, 2), 1L);
+        when(repository.search("Anna", "Nov", null, null, after, 2)).thenReturn(List.of(u1, u2));
+
+        UserPageResponse<UserResponse> result = service.search(new UserSearchRequest("Anna", "Nov", null, null), after, 2);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals("Novakova", result.getItems().get(1).getSurname());
+        assertEquals(new UserSearchCursor(9L, "Anna", "Novakova"), UserSearchCursor.decode(result.getNextCursor()));
+        assertNull(result.getNextAfterId());
+    }
+
+    @Test
+    void streamAllDetailPassEveryRowToConsumer()
+    {
+        User u1 = new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        User u2 = new User(2L, "C", "D", "yB9fR6tK0wLm", new UUID(0, 2), 1L);
+        doAnswer(invocation ->
+        {
+            Consumer<User> action = invocation.getArgument(0);
+            action.accept(u1);
+            action.accept(u2);
+
+            return null;
+        }).when(repository).forEach(any());
+
+        List<UserDetailResponse> result = new ArrayList<>();
+        service.streamAllDetail(result::add);
 
         assertEquals(2, result.size());
-        assertEquals("jXa4g3H7oPq2", result.get(0).getPersonID());
-        assertEquals("uuid-2", result.get(1).getUuid());
+        assertEquals(new UUID(0, 1), result.get(0).getUuid());
+        assertEquals("yB9fR6tK0wLm", result.get(1).getPersonID());
+    }
+
+    private static UserCreateRequest createRequest(String name, String surname, String personID)
+    {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setName(name);
+        req.setSurname(surname);
+        req.setPersonID(personID);
+
+        return req;
     }
 }
@@ -0,0 +1,72 @@
+package com.genesis.resources.utils;
+
+import com.genesis.resources.dto.UserField;
+import com.genesis.resources.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ETagsTest
+{
+
+    @Test
+    void parseIfMatchRoundTripVersionTag()
+    {
+        assertEquals(new ETags.IfMatch(false, List.of(2001L)), ETags.parseIfMatch(ETags.forVersion(2001L)));
+        assertEquals(new ETags.IfMatch(true, List.of()), ETags.parseIfMatch("*"));
+        assertEquals(new ETags.IfMatch(false, List.of()), ETags.parseIfMatch("W/\"7d1\""));
+        assertEquals(new ETags.IfMatch(false, List.of()), ETags.parseIfMatch("\"not-hex\""));
+    }
+
+    @Test
+    void parseIfMatchAcceptListOfTags()
+    {
+        ETags.IfMatch ifMatch = ETags.parseIfMatch("\"a\", W/\"c\", " + ETags.forVersion(2001L) + ",\"zz\"");
+
+        assertFalse(ifMatch.any());
+        assertEquals(List.of(0xaL, 2001L), ifMatch.versions());
+    }
+
+    @Test
+    void forRepresentationTagEachRepresentationApartAndKeepVersionForIfMatch()
+    {
+        String basic = ETags.forVersion(2001L);
+        String detail = ETags.forRepresentation(basic, true, null);
+        String fields = ETags.forRepresentation(basic, false, EnumSet.of(UserField.ID, UserField.NAME));
+
+        assertEquals(basic, ETags.forRepresentation(basic, false, null));
+        assertEquals(3, List.of(basic, detail, fields).stream().distinct().count());
+        assertNotEquals(fields, ETags.forRepresentation(basic, false, EnumSet.of(UserField.ID)));
+        assertFalse(ETags.matchesAny(basic, detail));
+        assertEquals(new ETags.IfMatch(false, List.of(2001L, 2001L)), ETags.parseIfMatch(detail + ", " + fields));
+    }
+
+    @Test
+    void matchesAnyAcceptListsWeakTagsAndWildcard()
+    {
+        String etag = ETags.forVersion(2001L);
+
+        assertTrue(ETags.matchesAny("\"1\", " + etag, etag));
+        assertTrue(ETags.matchesAny("W/" + etag, etag));
+        assertTrue(ETags.matchesAny("*", etag));
+        assertFalse(ETags.matchesAny("\"1\"", etag));
+    }
+
+    @Test
+    void forPageChangeWhenAnyVersionChanges()
+    {
+        User u1 = new User(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L);
+        User u2 = new User(2L, "C", "D", "yB9fR6tK0wLm", new UUID(0, 2), 1L);
+        User u2Updated = new User(2L, "E", "D", "yB9fR6tK0wLm", new UUID(0, 2), 2L);
+
+        assertEquals(ETags.forPage(List.of(u1, u2)), ETags.forPage(List.of(u1, u2)));
+        assertNotEquals(ETags.forPage(List.of(u1, u2)), ETags.forPage(List.of(u1, u2Updated)));
+    }
+}
@@ -1,8 +1,19 @@
 package com.genesis.resources.utils;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -26,4 +37,55 @@ class PersonIDProviderTest
     {
         assertTrue(PersonIDProvider.isValid("tQdG2kP3mJfB"));
     }
+
+    @Test
+    void reloadIfModifiedRetryAfterFailedReadAndCountFailure(@TempDir Path dir) throws IOException
+    {
+        Path file = dir.resolve("personIds.txt");
+        Files.writeString(file, "jXa4g3H7oPq2\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+
+        AtomicBoolean failNext = new AtomicBoolean();
+        FileSystemResource location = new FileSystemResource(file)
+        {
+            @Override
+            public File getFile()
+            {
+                if (failNext.getAndSet(false))
+                {
+                    throw new IllegalStateException("file is being replaced");
+                }
+
+                return super.getFile();
+            }
+        };
+
+        PersonIDProvider provider = new PersonIDProvider(location, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        provider.bindTo(registry);
+
+        try
+        {
+            provider.load();
+
+            Files.writeString(file, "yB9fR6tK0wLm\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(2_000_000));
+            failNext.set(true);
+            provider.reloadIfModified();
+
+            assertTrue(PersonIDProvider.isValid("jXa4g3H7oPq2"));
+            assertFalse(PersonIDProvider.isValid("yB9fR6tK0wLm"));
+            assertEquals(1.0, registry.get("genesis.personid.reload.failures").functionCounter().count());
+
+            // the failed read did not record the new timestamp, so the next check loads the file
+            provider.reloadIfModified();
+
+            assertTrue(PersonIDProvider.isValid("yB9fR6tK0wLm"));
+            assertEquals(1L, provider.reloadFailures());
+        } finally
+        {
+            provider.shutdown();
+            init();
+        }
+    }
 }
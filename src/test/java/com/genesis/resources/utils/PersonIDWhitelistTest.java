@@ -0,0 +1,65 @@
+package com.genesis.resources.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonIDWhitelistTest
+{
+
+    @Test
+    void containsFindEveryParsedId()
+    {
+        PersonIDWhitelist whitelist = parse("yB9fR6tK0wLm\njXa4g3H7oPq2\r\n  cN1vZ8pE5sYx  \n\niM5sO6zXcW7v");
+
+        assertEquals(4, whitelist.size());
+        assertTrue(whitelist.contains("jXa4g3H7oPq2"));
+        assertTrue(whitelist.contains("yB9fR6tK0wLm"));
+        assertTrue(whitelist.contains("cN1vZ8pE5sYx"));
+        assertTrue(whitelist.contains("iM5sO6zXcW7v"));
+    }
+
+    @Test
+    void containsRejectUnknownAndPartialIds()
+    {
+        PersonIDWhitelist whitelist = parse("jXa4g3H7oPq2\nyB9fR6tK0wLm\n");
+
+        assertFalse(whitelist.contains("jXa4g3H7oPq"));
+        assertFalse(whitelist.contains("jXa4g3H7oPq2X"));
+        assertFalse(whitelist.contains("XXXXXXXXXXXX"));
+        assertFalse(whitelist.contains(""));
+        assertFalse(whitelist.contains(null));
+    }
+
+    @Test
+    void parseSupportMixedWidthsAndDuplicates()
+    {
+        PersonIDWhitelist whitelist = parse("abc\nab\nabcd\nabc\nb\n");
+
+        assertEquals(4, whitelist.size());
+        assertTrue(whitelist.contains("ab"));
+        assertTrue(whitelist.contains("abc"));
+        assertTrue(whitelist.contains("abcd"));
+        assertTrue(whitelist.contains("b"));
+        assertFalse(whitelist.contains("a"));
+    }
+
+    @Test
+    void parseReturnEmptyForBlankInput()
+    {
+        PersonIDWhitelist whitelist = parse(" \n\n");
+
+        assertEquals(0, whitelist.size());
+        assertFalse(whitelist.contains("ab"));
+    }
+
+    private static PersonIDWhitelist parse(String content)
+    {
+        return PersonIDWhitelist.parse(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
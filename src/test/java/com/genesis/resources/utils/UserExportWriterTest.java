@@ -0,0 +1,81 @@
+package com.genesis.resources.utils;
+
+import com.genesis.resources.dto.UserDetailResponse;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserExportWriterTest
+{
+    private final ObjectWriter json = new ObjectMapper().writerFor(UserDetailResponse.class);
+
+    @Test
+    void csvQuoteFieldsWithSeparatorsAndQuotes() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (UserExportWriter writer = new UserExportWriter(UserFileFormat.CSV, json, out, false, 1))
+        {
+            writer.write(new UserDetailResponse(1L, "Anna, Jr.", "O\"Neil", "jXa4g3H7oPq2", new UUID(0, 1), 7L));
+        }
+
+        assertEquals("ID,Name,Surname,PersonID,Uuid,Version\n1,\"Anna, Jr.\",\"O\"\"Neil\",jXa4g3H7oPq2,00000000-0000-0000-0000-000000000001,7\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ndjsonWriteOneObjectPerLine() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (UserExportWriter writer = new UserExportWriter(UserFileFormat.NDJSON, json, out, false, 1000))
+        {
+            writer.write(new UserDetailResponse(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L));
+            writer.write(new UserDetailResponse(2L, "C", "D", "yB9fR6tK0wLm", new UUID(0, 2), 1L));
+
+            assertEquals(2, writer.rows());
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"personID\":\"jXa4g3H7oPq2\""));
+        assertTrue(lines[1].startsWith("{") && lines[1].contains("\"id\":\"2\""));
+    }
+
+    @Test
+    void gzipProduceCompleteStream() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (UserExportWriter writer = new UserExportWriter(UserFileFormat.CSV, json, out, true, 1))
+        {
+            writer.write(new UserDetailResponse(1L, "A", "B", "jXa4g3H7oPq2", new UUID(0, 1), 1L));
+        }
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))
+        {
+            assertEquals("ID,Name,Surname,PersonID,Uuid,Version\n1,A,B,jXa4g3H7oPq2,00000000-0000-0000-0000-000000000001,1\n",
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void formatOfResolveCaseInsensitiveNames()
+    {
+        assertEquals(UserFileFormat.CSV, UserFileFormat.of("CSV"));
+        assertEquals(UserFileFormat.NDJSON, UserFileFormat.of("ndjson"));
+        assertNull(UserFileFormat.of("xml"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.genesis.resources.utils;
+
+import com.genesis.resources.dto.UserCreateRequest;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserImportReaderTest
+{
+
+    @Test
+    void csvMapColumnsByHeaderAndUnquoteFields() throws IOException
+    {
+        String csv = "Uuid,PersonID,Surname,Name\r\n"
+                + "x,jXa4g3H7oPq2,\"O\"\"Neil\",\"Anna,\nJr.\"\r\n"
+                + "\r\n"
+                + "y,yB9fR6tK0wLm,Doe,John\r\n";
+
+        try (UserImportReader reader = reader(UserFileFormat.CSV, csv))
+        {
+            UserImportReader.Row first = reader.next();
+            assertEquals(2, first.line());
+            assertEquals("Anna,\nJr.", first.user().getName());
+            assertEquals("O\"Neil", first.user().getSurname());
+            assertEquals("jXa4g3H7oPq2", first.user().getPersonID());
+
+            UserImportReader.Row second = reader.next();
+            assertEquals(5, second.line());
+            assertEquals("John", second.user().getName());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void csvReportShortRecordsAsErrors() throws IOException
+    {
+        try (UserImportReader reader = reader(UserFileFormat.CSV, "Name,Surname,PersonID\nJohn,Doe\n"))
+        {
+            UserImportReader.Row row = reader.next();
+
+            assertNull(row.user());
+            assertNotNull(row.error());
+        }
+    }
+
+    @Test
+    void csvRejectHeaderWithoutRequiredColumns()
+    {
+        assertThrows(IllegalArgumentException.class, () -> reader(UserFileFormat.CSV, "Name,PersonID\n"));
+    }
+
+    @Test
+    void ndjsonReadOneRequestPerLineAndKeepGoingAfterBadLines() throws IOException
+    {
+        String ndjson = "{\"name\":\"John\",\"surname\":\"Doe\",\"personID\":\"jXa4g3H7oPq2\"}\n"
+                + "{not json\n"
+                + "\n"
+                + "{\"name\":\"Jane\",\"surname\":\"Doe\",\"personID\":\"yB9fR6tK0wLm\"}";
+
+        try (UserImportReader reader = reader(UserFileFormat.NDJSON, ndjson))
+        {
+            assertEquals("jXa4g3H7oPq2", reader.next().user().getPersonID());
+
+            UserImportReader.Row bad = reader.next();
+            assertEquals(2, bad.line());
+            assertNotNull(bad.error());
+
+            UserImportReader.Row last = reader.next();
+            assertEquals(4, last.line());
+            assertEquals("Jane", last.user().getName());
+
+            assertNull(reader.next());
+        }
+    }
+
+    private static UserImportReader reader(UserFileFormat format, String content) throws IOException
+    {
+        return new UserImportReader(format, new ObjectMapper().readerFor(UserCreateRequest.class),
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
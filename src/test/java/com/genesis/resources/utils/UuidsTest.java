@@ -0,0 +1,52 @@
+package com.genesis.resources.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidsTest
+{
+
+    @Test
+    void timeOrderedBatchIsVersion7AndUnique()
+    {
+        List<UUID> uuids = Uuids.timeOrderedBatch(10_000);
+
+        assertEquals(10_000, new HashSet<>(uuids).size());
+
+        for (UUID uuid : uuids)
+        {
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+        }
+    }
+
+    @Test
+    void timeOrderedBytesSortByCreationTime() throws InterruptedException
+    {
+        byte[] earlier = Uuids.toBytes(Uuids.timeOrdered());
+        Thread.sleep(2);
+        byte[] later = Uuids.toBytes(Uuids.timeOrdered());
+
+        assertTrue(Arrays.compareUnsigned(earlier, later) < 0);
+    }
+
+    @Test
+    void bytesRoundTrip()
+    {
+        UUID uuid = UUID.fromString("0192f1c4-5b7e-7a3d-9c21-4f8e6d2b1a90");
+        byte[] bytes = Uuids.toBytes(uuid);
+
+        assertEquals(16, bytes.length);
+        assertEquals((byte) 0x01, bytes[0]);
+        assertEquals(uuid, Uuids.fromBytes(bytes));
+        assertArrayEquals(bytes, Uuids.toBytes(Uuids.fromBytes(bytes)));
+    }
+}